@@ -0,0 +1,409 @@
+package customizablesine;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ *  Command line entry point that renders the animation of the main window (shape, ray and scrolling wave) to a PNG
+ *  sequence or an animated GIF, at any size and without opening a window.
+ *
+ *  The simulation is run first, one fixed step at a time just like the live timer, to get the ray's angle for every
+ *  frame and every wave sample up to the end. That's cheap and has to be done in order. Every frame can then be
+ *  drawn on its own: the trace a frame shows is just the samples leading up to it. So frames are drawn and encoded
+ *  on a pool of threads, each with its own FrameRenderer and image. PNGs are written by the threads themselves;
+ *  GIF frames are handed back in order to the one writer, with only a few frames in flight at a time.
+ */
+public class AnimationExport {
+
+    private static final String USAGE =
+        "usage: java -Djava.awt.headless=true -jar customizable-sine.jar --animate [options]\n" +
+        "  --preset NAME       circle, square, triangle or polygon (default circle)\n" +
+        "  --sides N           polygon side count (default 5)\n" +
+        "  --shape FILE        a saved free drawing instead of a preset: a .sine file, an SVG outline, or text with\n" +
+        "                      one \"x1 y1 x2 y2\" line per segment\n" +
+        "  --rotation PERCENT  rotation in percent of a full turn (default 0)\n" +
+        "  --frequency TURNS   turns per second (default 1)\n" +
+        "  --duration SECONDS  length of the animation (default 10)\n" +
+        "  --fps N             frames per second (default 60)\n" +
+        "  --width PIXELS      image width (default 1516)\n" +
+        "  --height PIXELS     image height, which is also the side of the drawing region (default 540)\n" +
+        "  --format png|gif    a numbered PNG per frame or one animated GIF (default png)\n" +
+        "  --threads N         frames drawn at once (default: one per core)\n" +
+        "  --out PATH          directory for PNGs or file for the GIF (default animation or animation.gif)";
+
+    //the colors FrameRenderer draws with, which is all a GIF frame needs
+    private static final Color[] PALETTE = {Color.white, Color.black, Color.gray, Color.gray.brighter(), Color.red};
+
+    public static void main(String[] args) throws IOException {
+        try {
+            export(args);
+        }
+        catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+    }
+
+    /**
+     *  Renders what the command line asks for. Bad options are thrown as an IllegalArgumentException before
+     *  anything is written.
+     */
+    static void export(String[] args) throws IOException {
+        String preset = "circle";
+        int sides = 5;
+        Path shapeFile = null;
+        double rotation = 0, frequency = 1, duration = 10, fps = 60;
+        int width = 1516, height = 540;
+        int threads = Runtime.getRuntime().availableProcessors();
+        String format = "png";
+        Path out = null;
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--help") || arg.equals("-h")) {
+                System.out.println(USAGE);
+                return;
+            }
+            if (i+1 == args.length) throw new IllegalArgumentException("missing value for " + arg);
+
+            String value = args[++i];
+            try {
+                if (arg.equals("--preset")) preset = value;
+                else if (arg.equals("--sides")) sides = Integer.parseInt(value);
+                else if (arg.equals("--shape")) shapeFile = Paths.get(value);
+                else if (arg.equals("--rotation")) rotation = Double.parseDouble(value);
+                else if (arg.equals("--frequency")) frequency = Double.parseDouble(value);
+                else if (arg.equals("--duration")) duration = Double.parseDouble(value);
+                else if (arg.equals("--fps")) fps = Double.parseDouble(value);
+                else if (arg.equals("--width")) width = Integer.parseInt(value);
+                else if (arg.equals("--height")) height = Integer.parseInt(value);
+                else if (arg.equals("--format")) format = value;
+                else if (arg.equals("--threads")) threads = Integer.parseInt(value);
+                else if (arg.equals("--out")) out = Paths.get(value);
+                else throw new IllegalArgumentException("unknown option " + arg);
+            }
+            catch (NumberFormatException e) {
+                throw new IllegalArgumentException("bad value for " + arg + ": " + value);
+            }
+        }
+
+        if (!format.equals("png") && !format.equals("gif")) throw new IllegalArgumentException("unknown format " + format);
+        if (!preset.matches("circle|square|triangle|polygon")) throw new IllegalArgumentException("unknown preset " + preset);
+        if (preset.equals("polygon") && sides < 3) {
+            throw new IllegalArgumentException("polygon sides have to be whole numbers from 3 up, not " + sides);
+        }
+        if (!(fps > 0) || Double.isInfinite(fps)) {
+            throw new IllegalArgumentException("frames per second have to be more than 0, not " + fps);
+        }
+        if (!(duration > 0) || Double.isInfinite(duration)) {
+            throw new IllegalArgumentException("the duration has to be more than 0, not " + duration);
+        }
+        long frameCount = Math.round(duration*fps);
+        if (frameCount < 1 || frameCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(duration + " s at " + fps + " fps doesn't make a number of frames that can be rendered");
+        }
+        if (height < 1) throw new IllegalArgumentException("the height has to be at least 1, not " + height);
+        if (width <= height) {
+            throw new IllegalArgumentException("the width has to leave room for the wave to the right of the drawing region");
+        }
+        if (out == null) out = Paths.get(format.equals("gif") ? "animation.gif" : "animation");
+
+        String name = preset.equals("polygon") ? "polygon" + sides : preset;
+        SegmentBuffer segments = shapeFile != null ? BatchExport.readSegments(shapeFile, height) : null;
+        RadialShape shape = BatchExport.createShape(name, segments, height);
+
+        long start = System.nanoTime();
+        Animation animation = simulate(shape, 2*Math.PI*rotation/100, frequency, (int) frameCount, fps, width, height);
+        int frames = animation.frameCount();
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads));
+        try {
+            if (format.equals("png")) writePngs(animation, out, pool);
+            else writeGif(animation, out, fps, pool, Math.max(1, threads));
+        }
+        finally {
+            pool.shutdown();
+        }
+        System.out.printf(Locale.ROOT, "wrote %d frames (%dx%d) in %.2f s%n", frames, width, height, (System.nanoTime() - start)/1e9);
+    }
+
+    /**
+     *  Everything needed to draw any frame: the ray's angle at each frame, and every wave sample taken (as a y
+     *  coordinate, like what goes into the live WaveTrace) along with how many had been taken by each frame.
+     */
+    static class Animation {
+        final RadialShape shape;
+        final double rotation;
+        final int width, height, waveSpeed, traceCapacity;
+        final double[] angles, samples;
+        final int[] sampleCounts;
+
+        Animation(RadialShape shape, double rotation, int width, int height, int waveSpeed,
+                  double[] angles, double[] samples, int[] sampleCounts) {
+            this.shape = shape;
+            this.rotation = rotation;
+            this.width = width;
+            this.height = height;
+            this.waveSpeed = waveSpeed;
+            this.traceCapacity = (width - height) / waveSpeed + 2;
+            this.angles = angles;
+            this.samples = samples;
+            this.sampleCounts = sampleCounts;
+        }
+
+        int frameCount() {
+            return angles.length;
+        }
+    }
+
+    /**
+     *  Runs the simulation at its usual fixed step, taking a frame every 1/fps seconds. The wave scrolls the same
+     *  number of pixels per step as in the window at its default height, scaled up with the height.
+     */
+    static Animation simulate(RadialShape shape, double rotation, double frequency, int frames, double fps,
+                              int width, int height) {
+        long stepNanos = CustomizableSine.DrawPanel.stepNanos;
+        double sampleRate = 1e9/stepNanos;
+        double center = height/2;
+        int waveSpeed = Math.max(1, Math.round(CustomizableSine.DrawPanel.waveSpeed*height/540f));
+
+        WaveEngine engine = new WaveEngine(shape, center);
+        engine.setRotation(rotation);
+        engine.setFrequency(frequency);
+        engine.setMissValue(Double.NaN);
+
+        //the same clock as the live timer, fed with the times the frames are taken at instead of the real time
+        SimulationClock clock = new SimulationClock(stepNanos, Integer.MAX_VALUE);
+        clock.advance(0);
+        int totalSteps = (int) Math.ceil(frames/fps*sampleRate) + 1;
+        double[] samples = new double[totalSteps];
+        double[] angles = new double[frames];
+        int[] sampleCounts = new int[frames];
+
+        int count = 0;
+        for (int frame = 0; frame < frames; frame++) {
+            int steps = clock.advance((long) ((frame + 1)/fps*1e9));
+            steps = Math.min(steps, samples.length - count);
+            engine.fill(samples, count, steps, sampleRate);
+            for (int i = count; i < count + steps; i++) {
+                samples[i] = samples[i] == samples[i] ? center - samples[i]*center : -1;
+            }
+            count += steps;
+            angles[frame] = engine.getAngle(0);
+            sampleCounts[frame] = count;
+        }
+
+        return new Animation(shape, rotation, width, height, waveSpeed, angles, samples, sampleCounts);
+    }
+
+    /**
+     *  What each pool thread keeps between frames, so the static layer is only drawn once per thread and nothing
+     *  big gets allocated per frame.
+     */
+    private static class Painter {
+        final FrameRenderer renderer = new FrameRenderer();
+        final WaveTrace trace = new WaveTrace();
+        BufferedImage image, indexed;
+
+        BufferedImage paint(Animation animation, int frame) {
+            if (image == null) image = new BufferedImage(animation.width, animation.height, BufferedImage.TYPE_INT_RGB);
+
+            //this frame's trace is the newest samples up to it, pushed oldest first
+            trace.clear();
+            trace.setCapacity(animation.traceCapacity);
+            int end = animation.sampleCounts[frame];
+            for (int i = Math.max(0, end - animation.traceCapacity); i < end; i++) {
+                trace.push(animation.samples[i]);
+            }
+
+            //same ray as DrawPanel.step
+            double center = animation.height/2;
+            double angle = animation.angles[frame];
+            double intersectX = -1, intersectY = -1;
+            double radius = animation.shape.isEmpty() ? Double.NaN
+                            : animation.shape.radius(center, center, -angle - animation.rotation);
+            if (radius == radius && end > 0) {
+                intersectX = center + radius*Math.cos(-angle);
+                intersectY = center + radius*Math.sin(-angle);
+            }
+
+            Graphics2D g = image.createGraphics();
+            renderer.render(g, animation.width, animation.height, animation.shape, animation.rotation,
+                            trace, animation.waveSpeed, intersectX, intersectY);
+            g.dispose();
+            return image;
+        }
+
+        /**
+         *  Copies a frame into an image with the given palette, which makes PNGs about a quarter of the size and
+         *  quicker to compress. With reuse, it goes into the same image every time, otherwise into a new one.
+         */
+        BufferedImage toPalette(BufferedImage frame, IndexColorModel colors, boolean reuse) {
+            BufferedImage target = reuse ? indexed : null;
+            if (target == null) {
+                target = new BufferedImage(frame.getWidth(), frame.getHeight(), BufferedImage.TYPE_BYTE_INDEXED, colors);
+                if (reuse) indexed = target;
+            }
+            Graphics2D g = target.createGraphics();
+            g.drawImage(frame, 0, 0, null);
+            g.dispose();
+            return target;
+        }
+    }
+
+    private static final ThreadLocal<Painter> painters = new ThreadLocal<Painter>() {
+        @Override
+        protected Painter initialValue() {
+            return new Painter();
+        }
+    };
+
+    private static void writePngs(final Animation animation, Path directory, ExecutorService pool) throws IOException {
+        Files.createDirectories(directory);
+        //shapes cache things as they're queried, so each thread gets its own copy to find the ray's hit on
+        final ThreadLocal<Animation> copies = copiesOf(animation);
+        final IndexColorModel colors = palette();
+        final String digits = "%0" + Math.max(4, Integer.toString(animation.frameCount()).length()) + "d.png";
+
+        Future<?>[] futures = new Future<?>[animation.frameCount()];
+        for (int frame = 0; frame < futures.length; frame++) {
+            final File file = directory.resolve(String.format(Locale.ROOT, "frame" + digits, frame)).toFile();
+            final int f = frame;
+            futures[frame] = pool.submit(() -> {
+                Painter painter = painters.get();
+                ImageIO.write(painter.toPalette(painter.paint(copies.get(), f), colors, true), "png", file);
+                return null;
+            });
+        }
+        for (Future<?> future : futures) {
+            await(future);
+        }
+    }
+
+    private static void writeGif(Animation animation, Path file, double fps, ExecutorService pool, int threads) throws IOException {
+        if (file.getParent() != null) Files.createDirectories(file.getParent());
+        final ThreadLocal<Animation> copies = copiesOf(animation);
+        final IndexColorModel colors = palette();
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("gif").next();
+        ImageOutputStream stream = ImageIO.createImageOutputStream(file.toFile());
+        try {
+            writer.setOutput(stream);
+            writer.prepareWriteSequence(null);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            IIOMetadata metadata = gifMetadata(writer, param, colors, (int) Math.round(100/fps));
+
+            //draw ahead of the writer, but only a few frames, since every one in flight is a whole image
+            ArrayDeque<Future<BufferedImage>> pending = new ArrayDeque<Future<BufferedImage>>();
+            int next = 0;
+            for (int frame = 0; frame < animation.frameCount(); frame++) {
+                while (next < animation.frameCount() && pending.size() < 2*threads) {
+                    final int f = next++;
+                    pending.add(pool.submit(() -> {
+                        //mapped to the palette here so the writer thread only has to compress, and into a new
+                        //image every time since it waits in the queue
+                        Painter painter = painters.get();
+                        return painter.toPalette(painter.paint(copies.get(), f), colors, false);
+                    }));
+                }
+                writer.writeToSequence(new IIOImage(await(pending.poll()), null, metadata), param);
+            }
+            writer.endWriteSequence();
+        }
+        finally {
+            stream.close();
+            writer.dispose();
+        }
+    }
+
+    private static ThreadLocal<Animation> copiesOf(final Animation animation) {
+        return new ThreadLocal<Animation>() {
+            @Override
+            protected Animation initialValue() {
+                return new Animation(animation.shape.copy(), animation.rotation, animation.width, animation.height,
+                                     animation.waveSpeed, animation.angles, animation.samples, animation.sampleCounts);
+            }
+        };
+    }
+
+    private static IndexColorModel palette() {
+        byte[] r = new byte[PALETTE.length], g = new byte[PALETTE.length], b = new byte[PALETTE.length];
+        for (int i = 0; i < PALETTE.length; i++) {
+            r[i] = (byte) PALETTE[i].getRed();
+            g[i] = (byte) PALETTE[i].getGreen();
+            b[i] = (byte) PALETTE[i].getBlue();
+        }
+        return new IndexColorModel(8, PALETTE.length, r, g, b);
+    }
+
+    /**
+     *  Per-frame GIF metadata: the delay in hundredths of a second, and a NETSCAPE2.0 block so it loops forever.
+     */
+    private static IIOMetadata gifMetadata(ImageWriter writer, ImageWriteParam param, IndexColorModel colors,
+                                           int delay) throws IOException {
+        ImageTypeSpecifier type = new ImageTypeSpecifier(colors, colors.createCompatibleSampleModel(1, 1));
+        IIOMetadata metadata = writer.getDefaultImageMetadata(type, param);
+        String format = metadata.getNativeMetadataFormatName();
+        IIOMetadataNode root = (IIOMetadataNode) metadata.getAsTree(format);
+
+        IIOMetadataNode control = child(root, "GraphicControlExtension");
+        control.setAttribute("disposalMethod", "none");
+        control.setAttribute("userInputFlag", "FALSE");
+        control.setAttribute("transparentColorFlag", "FALSE");
+        control.setAttribute("delayTime", Integer.toString(Math.max(1, delay)));
+        control.setAttribute("transparentColorIndex", "0");
+
+        IIOMetadataNode application = new IIOMetadataNode("ApplicationExtension");
+        application.setAttribute("applicationID", "NETSCAPE");
+        application.setAttribute("authenticationCode", "2.0");
+        application.setUserObject(new byte[] {1, 0, 0});    //sub-block 1, loop count 0 (forever)
+        child(root, "ApplicationExtensions").appendChild(application);
+
+        metadata.setFromTree(format, root);
+        return metadata;
+    }
+
+    private static IIOMetadataNode child(IIOMetadataNode parent, String name) {
+        for (int i = 0; i < parent.getLength(); i++) {
+            if (parent.item(i).getNodeName().equals(name)) return (IIOMetadataNode) parent.item(i);
+        }
+        IIOMetadataNode node = new IIOMetadataNode(name);
+        parent.appendChild(node);
+        return node;
+    }
+
+    private static <T> T await(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted", e);
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            throw new RuntimeException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package customizablesine;
+
+import javax.sound.sampled.*;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+/**
+ *  Plays the shape's waveform as a wavetable oscillator.
+ *
+ *  One period of the wave (the height of the ray's intersection over a full turn) is read out of the shape's radial
+ *  profile into a table whenever the shape or rotation changes, at most once a frame. A dedicated thread then steps through that table
+ *  with a phase accumulator and writes 16-bit mono blocks to the sound card. The per-sample loop only does
+ *  arithmetic on arrays allocated up front.
+ *
+ *  Parameter changes never click: a new table is crossfaded in over a short stretch (one that comes in during a
+ *  crossfade waits for it to finish), the frequency glides to its new value, and the volume ramps up on start and
+ *  back down on stop.
+ *
+ *  If there's no sound device (or the sine.audio.file property is set), the blocks go to a WAV file instead, written
+ *  at the same pace a sound card would take them.
+ */
+public class AudioEngine implements Runnable {
+    private static final int TABLE_SIZE = 4096;
+    private static final int CROSSFADE_SAMPLES = 1024;
+    private static final double GLIDE_SECONDS = 0.01;
+    private static final double AMPLITUDE = 0.5;
+
+    private final float sampleRate;
+    private final int bufferFrames;
+    private final File fallbackFile;
+    private final Runnable failed;
+    private final RadialProfile profile = new RadialProfile(TABLE_SIZE);
+
+    private volatile float[] table = new float[TABLE_SIZE];
+    private volatile double frequency;
+    private volatile boolean running;
+    private volatile String error;
+    private Thread thread;
+
+    /**
+     *  @param sampleRate    usually 44100 or 48000
+     *  @param bufferFrames  samples per block written to the device, smaller means less latency
+     *  @param fallbackFile  where the audio goes if there's no sound device to play it on
+     *  @param failed        run on the audio thread if it had to stop because neither output could be opened or
+     *                       writing failed; isRunning() is false by then and getError() says what went wrong
+     */
+    public AudioEngine(float sampleRate, int bufferFrames, File fallbackFile, Runnable failed) {
+        this.sampleRate = sampleRate;
+        this.bufferFrames = bufferFrames;
+        this.fallbackFile = fallbackFile;
+        this.failed = failed;
+    }
+
+    /**
+     *  Rebuilds the wavetable from the shape as seen from (center, center), turned by the given rotation. The new
+     *  table takes effect on the audio thread's next block. This samples the whole shape and makes a new table, so
+     *  changes that come in faster than that (like dragging) should be handed over at most once a frame.
+     */
+    public void setShape(RadialShape shape, double center, double rotation) {
+        float[] next = new float[TABLE_SIZE];
+        if (shape != null && !shape.isEmpty()) {
+            profile.build(shape, center, center);
+            for (int i = 0; i < TABLE_SIZE; i++) {
+                //same lookup as DrawPanel.step: the rotation is a phase offset, and the screen angle is negated
+                double angle = 2*Math.PI*i/TABLE_SIZE;
+                double radius = profile.sample(-angle - rotation);
+                next[i] = radius == radius ? (float) (radius*Math.sin(angle)/center) : 0;
+            }
+        }
+        table = next;
+    }
+
+    public void setFrequency(double hz) {
+        frequency = hz;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     *  Returns why the audio last stopped by itself, or null if it hasn't.
+     */
+    public String getError() {
+        return error;
+    }
+
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        error = null;
+        thread = new Thread(this, "audio");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MAX_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     *  Fades out, waits for the last block to be written and closes the output.
+     */
+    public synchronized void stop() {
+        if (!running) return;
+        running = false;
+        try {
+            thread.join();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+    }
+
+    @Override
+    public void run() {
+        Sink sink;
+        try {
+            sink = openSink();
+        }
+        catch (IOException e) {
+            fail("couldn't open audio output: " + e.getMessage());
+            return;
+        }
+
+        byte[] block = new byte[2*bufferFrames];
+        float[] current = table, fadingOut = null;
+        int fadePosition = 0;
+        double phase = 0, currentFrequency = frequency;
+        double glide = 1 - Math.exp(-1/(GLIDE_SECONDS*sampleRate));
+        double gain = 0, gainStep = 1.0/bufferFrames;
+
+        try {
+            boolean finished = false;
+            while (!finished) {
+                //pick up parameter changes once per block
+                float[] latest = table;
+                //a new table has to wait for the last one to finish fading in, otherwise the one fading out would be
+                //cut off partway and click
+                if (latest != current && fadingOut == null) {
+                    fadingOut = current;
+                    current = latest;
+                    fadePosition = 0;
+                }
+                double targetFrequency = frequency;
+                double targetGain = running ? 1 : 0;
+
+                for (int i = 0; i < bufferFrames; i++) {
+                    currentFrequency += (targetFrequency - currentFrequency)*glide;
+                    phase += currentFrequency/sampleRate;
+                    phase -= Math.floor(phase);
+
+                    double value = lookup(current, phase);
+                    if (fadingOut != null) {
+                        double mix = (double) fadePosition/CROSSFADE_SAMPLES;
+                        value = value*mix + lookup(fadingOut, phase)*(1 - mix);
+                        if (++fadePosition == CROSSFADE_SAMPLES) fadingOut = null;
+                    }
+
+                    if (gain < targetGain) gain = Math.min(targetGain, gain + gainStep);
+                    else if (gain > targetGain) gain = Math.max(targetGain, gain - gainStep);
+
+                    int sample = (int) (Math.max(-1, Math.min(1, value*gain*AMPLITUDE))*Short.MAX_VALUE);
+                    block[2*i] = (byte) sample;
+                    block[2*i+1] = (byte) (sample >> 8);
+                }
+
+                sink.write(block, block.length);
+                finished = !running && gain == 0;
+            }
+        }
+        catch (IOException e) {
+            fail("audio output failed: " + e.getMessage());
+        }
+        finally {
+            sink.close();
+        }
+    }
+
+    private void fail(String message) {
+        System.err.println(message);
+        error = message;
+        running = false;
+        failed.run();
+    }
+
+    private static double lookup(float[] table, double phase) {
+        double position = phase*table.length;
+        int i = (int) position;
+        if (i >= table.length) i = 0;
+        double frac = position - i;
+        float a = table[i];
+        float b = table[i+1 == table.length ? 0 : i+1];
+        return a + (b - a)*frac;
+    }
+
+    private Sink openSink() throws IOException {
+        AudioFormat format = new AudioFormat(sampleRate, 16, 1, true, false);
+        if (System.getProperty("sine.audio.file") == null) {
+            try {
+                SourceDataLine line = AudioSystem.getSourceDataLine(format);
+                line.open(format, 2*bufferFrames*2);    //room for two blocks: one playing, one being filled
+                line.start();
+                return new LineSink(line);
+            }
+            catch (LineUnavailableException | IllegalArgumentException | SecurityException e) {
+                System.err.println("no sound device available (" + e.getMessage() + "), writing audio to " + fallbackFile);
+            }
+        }
+
+        File file = System.getProperty("sine.audio.file") != null ? new File(System.getProperty("sine.audio.file")) : fallbackFile;
+        return new FileSink(file, sampleRate);
+    }
+
+    private interface Sink {
+        void write(byte[] data, int length) throws IOException;
+
+        void close();
+    }
+
+    private static class LineSink implements Sink {
+        private final SourceDataLine line;
+
+        LineSink(SourceDataLine line) {
+            this.line = line;
+        }
+
+        @Override
+        public void write(byte[] data, int length) {
+            line.write(data, 0, length);    //blocks until there's room, which paces the audio thread
+        }
+
+        @Override
+        public void close() {
+            line.drain();
+            line.close();
+        }
+    }
+
+    /**
+     *  Writes a 16-bit mono WAV file, sleeping as needed so blocks go out no faster than they would play. The sizes
+     *  in the header are filled in on close.
+     */
+    private static class FileSink implements Sink {
+        private final RandomAccessFile file;
+        private final float sampleRate;
+        private final long startTime = System.nanoTime();
+        private long bytesWritten;
+
+        FileSink(File path, float sampleRate) throws IOException {
+            this.file = new RandomAccessFile(path, "rw");
+            this.sampleRate = sampleRate;
+            file.setLength(0);
+            file.write(header(0));
+        }
+
+        @Override
+        public void write(byte[] data, int length) throws IOException {
+            file.write(data, 0, length);
+            bytesWritten += length;
+
+            long due = startTime + (long) (bytesWritten/2/sampleRate*1e9);
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                try {
+                    Thread.sleep(wait/1000000, (int) (wait%1000000));
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                file.seek(0);
+                file.write(header(bytesWritten));
+                file.close();
+            }
+            catch (IOException e) {
+                System.err.println("couldn't finish audio file: " + e.getMessage());
+            }
+        }
+
+        private byte[] header(long dataSize) {
+            int rate = (int) sampleRate;
+            int[] fields = {
+                0x46464952, (int) (36 + dataSize), 0x45564157,     //"RIFF", size, "WAVE"
+                0x20746d66, 16, 1 | (1 << 16), rate, 2*rate,       //"fmt ", chunk size, PCM + mono, rates
+                2 | (16 << 16), 0x61746164, (int) dataSize         //bytes per frame + bits, "data", size
+            };
+            byte[] bytes = new byte[44];
+            for (int i = 0; i < fields.length; i++) {
+                bytes[4*i] = (byte) fields[i];
+                bytes[4*i+1] = (byte) (fields[i] >> 8);
+                bytes[4*i+2] = (byte) (fields[i] >> 16);
+                bytes[4*i+3] = (byte) (fields[i] >> 24);
+            }
+            return bytes;
+        }
+    }
+}
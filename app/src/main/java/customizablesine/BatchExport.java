@@ -0,0 +1,375 @@
+package customizablesine;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ *  Command line entry point that renders waveforms to files without opening a window, for a whole grid of shapes,
+ *  rotations and frequencies at once.
+ *
+ *  Every combination is its own job, and the jobs are spread over all cores with a parallel stream. Each job
+ *  streams its samples straight to disk in small chunks, so memory use doesn't grow with the duration or the size
+ *  of the grid. Nothing here touches Swing, so it runs fine with -Djava.awt.headless=true.
+ *
+ *  Each sample is the height of the ray's intersection above the center, divided by the distance from the center
+ *  to the edge of the drawing region (so it fits in [-1, 1] for anything drawn inside the region), or 0 if the ray
+ *  misses the shape.
+ */
+public class BatchExport {
+
+    private static final String USAGE =
+        "usage: java -Djava.awt.headless=true -jar customizable-sine.jar --batch [options]\n" +
+        "  --presets LIST      built-in shapes to export: circle,square,triangle,polygon (default polygon)\n" +
+        "  --sides LIST        polygon side counts (default 3-15)\n" +
+        "  --shape FILE        a saved free drawing to export too (can be repeated): a .sine file, an SVG outline, or\n" +
+        "                      text with one \"x1 y1 x2 y2\" line per segment\n" +
+        "  --rotations LIST    rotations in percent of a full turn (default 0)\n" +
+        "  --frequencies LIST  frequencies in turns per second (default 1)\n" +
+        "  --duration SECONDS  length of each waveform (default 1)\n" +
+        "  --rate HZ           samples per second (default 44100)\n" +
+        "  --size PIXELS       side of the square drawing region the shapes are built for (default 512)\n" +
+        "  --format csv|wav    output format (default csv)\n" +
+        "  --out DIR           output directory (default .)\n" +
+        "LISTs are comma separated values or ranges like 3-15 or 0-100:10";
+
+    private static final int CHUNK_SAMPLES = 4096;
+
+    public static void main(String[] args) throws IOException {
+        try {
+            export(args);
+        }
+        catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+    }
+
+    /**
+     *  Runs everything the command line asks for. Bad options (including ones that would make two jobs write the
+     *  same file) are thrown as an IllegalArgumentException before anything is written.
+     */
+    static void export(String[] args) throws IOException {
+        List<String> presets = new ArrayList<String>();
+        List<Double> sides = parseList("3-15");
+        List<Double> rotations = parseList("0");
+        List<Double> frequencies = parseList("1");
+        List<Path> shapeFiles = new ArrayList<Path>();
+        double duration = 1;
+        int rate = 44100;
+        int size = 512;
+        String format = "csv";
+        Path out = Paths.get(".");
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--help") || arg.equals("-h")) {
+                System.out.println(USAGE);
+                return;
+            }
+            if (i+1 == args.length) throw new IllegalArgumentException("missing value for " + arg);
+
+            String value = args[++i];
+            if (arg.equals("--presets")) for (String preset : value.split(",")) presets.add(preset.trim());
+            else if (arg.equals("--sides")) sides = parseList(value);
+            else if (arg.equals("--shape")) shapeFiles.add(Paths.get(value));
+            else if (arg.equals("--rotations")) rotations = parseList(value);
+            else if (arg.equals("--frequencies")) frequencies = parseList(value);
+            else if (arg.equals("--duration")) duration = Double.parseDouble(value);
+            else if (arg.equals("--rate")) rate = Integer.parseInt(value);
+            else if (arg.equals("--size")) size = Integer.parseInt(value);
+            else if (arg.equals("--format")) format = value;
+            else if (arg.equals("--out")) out = Paths.get(value);
+            else throw new IllegalArgumentException("unknown option " + arg);
+        }
+
+        if (!format.equals("csv") && !format.equals("wav")) throw new IllegalArgumentException("unknown format " + format);
+        if (presets.isEmpty() && shapeFiles.isEmpty()) presets.add("polygon");
+
+        //one entry per shape: a name for the output files and the segments (null for presets)
+        List<String> shapeNames = new ArrayList<String>();
+        List<SegmentBuffer> shapeSegments = new ArrayList<SegmentBuffer>();
+        for (String preset : presets) {
+            if (preset.equals("polygon")) {
+                for (double s : sides) {
+                    if (s != Math.rint(s) || s < 3 || s > Integer.MAX_VALUE) {
+                        throw new IllegalArgumentException("polygon sides have to be whole numbers from 3 up, not " + s);
+                    }
+                    shapeNames.add("polygon" + (int) s);
+                    shapeSegments.add(null);
+                }
+            }
+            else if (preset.equals("circle") || preset.equals("square") || preset.equals("triangle")) {
+                shapeNames.add(preset);
+                shapeSegments.add(null);
+            }
+            else throw new IllegalArgumentException("unknown preset " + preset);
+        }
+        for (Path file : shapeFiles) {
+            String name = file.getFileName().toString();
+            shapeNames.add(name.contains(".") ? name.substring(0, name.lastIndexOf('.')) : name);
+            shapeSegments.add(readSegments(file, size));
+        }
+
+        List<Job> jobs = new ArrayList<Job>();
+        for (int s = 0; s < shapeNames.size(); s++) {
+            for (double rotation : rotations) {
+                for (double frequency : frequencies) {
+                    jobs.add(new Job(shapeNames.get(s), shapeSegments.get(s), rotation, frequency, duration, rate, size, format, out));
+                }
+            }
+        }
+
+        //jobs run in parallel, so two of them writing the same file would garble it
+        Set<String> names = new HashSet<String>();
+        for (Job job : jobs) {
+            if (!names.add(job.fileName)) {
+                throw new IllegalArgumentException("more than one job would write " + job.fileName + " (a shape file named"
+                                                   + " like a preset, shape files with the same name, or values that"
+                                                   + " are the same to 2 decimal places)");
+            }
+        }
+        Files.createDirectories(out);
+
+        long start = System.nanoTime();
+        jobs.parallelStream().forEach(job -> {
+            try {
+                job.run();
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        //listed once they're all done, in the order of the options rather than whichever finished first
+        for (Job job : jobs) {
+            System.out.println(out.resolve(job.fileName));
+        }
+        System.out.printf(Locale.ROOT, "wrote %d files in %.2f s%n", jobs.size(), (System.nanoTime() - start)/1e9);
+    }
+
+    /**
+     *  Builds a fresh shape for one job. Shapes cache things as they're queried, so jobs never share one.
+     */
+    static RadialShape createShape(String name, SegmentBuffer segments, int size) {
+        if (segments != null) return new SegmentShape(segments, Integer.getInteger("sine.profileSize", 8192));
+        if (name.equals("circle")) return ShapePresets.circle(size);
+        if (name.equals("square")) return ShapePresets.square(size);
+        if (name.equals("triangle")) return ShapePresets.triangle(size);
+        return ShapePresets.polygon(size, Integer.parseInt(name.substring("polygon".length())));
+    }
+
+    /**
+     *  Reads a free drawing from a shape file, an SVG (fitted to a drawing region of the given size) or text with
+     *  one segment per line as "x1 y1 x2 y2". Blank lines and lines starting with # are skipped in text.
+     */
+    static SegmentBuffer readSegments(Path file, int size) throws IOException {
+        if (ShapeFile.isShapeFile(file)) return ShapeFile.load(file);
+        if (file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".svg")) {
+            return SvgImport.read(file, Double.parseDouble(System.getProperty("sine.svgFlatness", "0.25")), size);
+        }
+
+        SegmentBuffer segments = new SegmentBuffer();
+        BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                String[] parts = line.split("[\\s,]+");
+                if (parts.length != 4) throw new IOException(file + ": expected 4 numbers per line, got \"" + line + "\"");
+                segments.add(Double.parseDouble(parts[0]), Double.parseDouble(parts[1]),
+                             Double.parseDouble(parts[2]), Double.parseDouble(parts[3]));
+            }
+        }
+        finally {
+            reader.close();
+        }
+        return segments;
+    }
+
+    private static class Job {
+        final String shapeName;
+        final SegmentBuffer segments;
+        final double rotation, frequency, duration;
+        final int rate, size;
+        final String format, fileName;
+        final Path out;
+
+        Job(String shapeName, SegmentBuffer segments, double rotation, double frequency, double duration,
+            int rate, int size, String format, Path out) {
+            this.shapeName = shapeName;
+            this.segments = segments;
+            this.rotation = rotation;
+            this.frequency = frequency;
+            this.duration = duration;
+            this.rate = rate;
+            this.size = size;
+            this.format = format;
+            this.out = out;
+            this.fileName = String.format(Locale.ROOT, "%s_r%s_f%s.%s", shapeName, number(rotation), number(frequency), format);
+        }
+
+        void run() throws IOException {
+            RadialShape shape = createShape(shapeName, segments, size);
+            double center = size/2;
+            double rotAngle = 2*Math.PI*rotation/100;
+            long count = (long) Math.ceil(duration*rate);
+
+            File file = out.resolve(fileName).toFile();
+            SampleWriter writer = format.equals("wav") ? new WavWriter(file, rate, count) : new CsvWriter(file, rate);
+
+            double[] radii = new double[CHUNK_SAMPLES];
+            double[] values = new double[CHUNK_SAMPLES];
+            try {
+                for (long first = 0; first < count; first += CHUNK_SAMPLES) {
+                    int n = (int) Math.min(CHUNK_SAMPLES, count - first);
+                    for (int i = 0; i < n; i++) {
+                        //same lookup as DrawPanel.step, but with the angle worked out from the sample time
+                        double angle = 2*Math.PI*frequency*(first + i)/rate;
+                        double radius = shape.radius(center, center, -angle - rotAngle);
+                        radii[i] = radius;
+                        values[i] = radius == radius ? radius*Math.sin(angle)/center : 0;
+                    }
+                    writer.write(first, radii, values, n);
+                }
+            }
+            finally {
+                writer.close();
+            }
+        }
+    }
+
+    private interface SampleWriter extends Closeable {
+        void write(long firstSample, double[] radii, double[] values, int count) throws IOException;
+    }
+
+    private static class CsvWriter implements SampleWriter {
+        private final Writer writer;
+        private final int rate;
+        private final StringBuilder line = new StringBuilder();
+
+        CsvWriter(File file, int rate) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8), 1 << 16);
+            this.rate = rate;
+            writer.write("sample,time,radius,value\n");
+        }
+
+        @Override
+        public void write(long firstSample, double[] radii, double[] values, int count) throws IOException {
+            for (int i = 0; i < count; i++) {
+                line.setLength(0);
+                line.append(firstSample + i).append(',')
+                    .append((double) (firstSample + i)/rate).append(',')
+                    .append(radii[i]).append(',')
+                    .append(values[i]).append('\n');
+                writer.append(line);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+
+    /**
+     *  16-bit mono PCM. The number of samples is known up front, so the header can be written first and the data
+     *  streamed after it.
+     */
+    private static class WavWriter implements SampleWriter {
+        private final OutputStream stream;
+        private final byte[] buffer = new byte[2*CHUNK_SAMPLES];
+
+        WavWriter(File file, int rate, long samples) throws IOException {
+            this.stream = new BufferedOutputStream(new FileOutputStream(file), 1 << 16);
+            long dataSize = 2*samples;
+            if (dataSize + 36 > 0xFFFFFFFFL) throw new IOException("too many samples for a WAV file: " + samples);
+
+            writeAscii("RIFF");
+            writeInt((int) (36 + dataSize));
+            writeAscii("WAVE");
+            writeAscii("fmt ");
+            writeInt(16);           //format chunk size
+            writeShort(1);          //PCM
+            writeShort(1);          //mono
+            writeInt(rate);
+            writeInt(2*rate);       //bytes per second
+            writeShort(2);          //bytes per frame
+            writeShort(16);         //bits per sample
+            writeAscii("data");
+            writeInt((int) dataSize);
+        }
+
+        @Override
+        public void write(long firstSample, double[] radii, double[] values, int count) throws IOException {
+            for (int i = 0; i < count; i++) {
+                int sample = (int) Math.round(Math.max(-1, Math.min(1, values[i]))*Short.MAX_VALUE);
+                buffer[2*i] = (byte) sample;
+                buffer[2*i+1] = (byte) (sample >> 8);
+            }
+            stream.write(buffer, 0, 2*count);
+        }
+
+        @Override
+        public void close() throws IOException {
+            stream.close();
+        }
+
+        private void writeAscii(String s) throws IOException {
+            stream.write(s.getBytes(StandardCharsets.US_ASCII));
+        }
+
+        private void writeInt(int value) throws IOException {
+            writeShort(value);
+            writeShort(value >> 16);
+        }
+
+        private void writeShort(int value) throws IOException {
+            stream.write(value);
+            stream.write(value >> 8);
+        }
+    }
+
+    /**
+     *  Parses comma separated values and ranges ("3-15", or "0-100:10" with a step).
+     */
+    static List<Double> parseList(String spec) {
+        List<Double> values = new ArrayList<Double>();
+        for (String part : spec.split(",")) {
+            part = part.trim();
+            double step = 1;
+            if (part.contains(":")) {
+                step = Double.parseDouble(part.substring(part.indexOf(':') + 1));
+                part = part.substring(0, part.indexOf(':'));
+            }
+
+            //a dash after the first character is a range, not a minus sign
+            int dash = part.indexOf('-', 1);
+            if (dash == -1) {
+                values.add(Double.parseDouble(part));
+                continue;
+            }
+
+            double from = Double.parseDouble(part.substring(0, dash));
+            double to = Double.parseDouble(part.substring(dash + 1));
+            if (step <= 0) throw new IllegalArgumentException("bad step in " + part);
+            //count steps instead of adding them up, so 0.1-4:0.1 doesn't drift
+            for (long i = 0; from + i*step <= to + step*1e-9; i++) {
+                values.add(from + i*step);
+            }
+        }
+        return values;
+    }
+
+    private static String number(double value) {
+        return value == Math.rint(value) ? Long.toString((long) value) : String.format(Locale.ROOT, "%.2f", value);
+    }
+}
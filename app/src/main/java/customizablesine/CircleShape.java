@@ -0,0 +1,66 @@
+package customizablesine;
+
+import java.awt.Graphics2D;
+
+/**
+ *  An exact circle. Seen from its own center it's just a constant radius; from anywhere else we solve the
+ *  ray/circle quadratic.
+ */
+public class CircleShape implements RadialShape {
+    private double x, y;
+    private final double r;
+
+    public CircleShape(double x, double y, double r) {
+        this.x = x;
+        this.y = y;
+        this.r = r;
+    }
+
+    @Override
+    public double radius(double cx, double cy, double angle) {
+        //close enough to the center that the difference can only be rounding from a transform
+        if (Math.abs(cx - x) < 1e-9 && Math.abs(cy - y) < 1e-9) return r;
+
+        //solve |c + t*d - o|^2 = r^2 for the smallest t >= 0
+        double wx = cx - x, wy = cy - y;
+        double b = wx*Math.cos(angle) + wy*Math.sin(angle);
+        double c = wx*wx + wy*wy - r*r;
+        double disc = b*b - c;
+        if (disc < 0) return Double.NaN;
+
+        double root = Math.sqrt(disc);
+        if (-b - root >= 0) return -b - root;   //starting outside, hit the near side
+        if (-b + root >= 0) return -b + root;   //starting inside
+        return Double.NaN;
+    }
+
+    @Override
+    public void translate(double dx, double dy) {
+        x += dx;
+        y += dy;
+    }
+
+    @Override
+    public void rotate(double angle, double cx, double cy) {
+        double cos = Math.cos(angle), sin = Math.sin(angle);
+        double newX = (x-cx)*cos - (y-cy)*sin + cx;
+        double newY = (x-cx)*sin + (y-cy)*cos + cy;
+        x = newX;
+        y = newY;
+    }
+
+    @Override
+    public void draw(Graphics2D g) {
+        g.drawOval((int) (x - r), (int) (y - r), (int) (2*r), (int) (2*r));
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return false;
+    }
+
+    @Override
+    public RadialShape copy() {
+        return new CircleShape(x, y, r);
+    }
+}
@@ -0,0 +1,940 @@
+package customizablesine;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import javax.swing.*;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import java.awt.*;
+import java.awt.event.*;
+import java.awt.geom.AffineTransform;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+/**
+ *  Author: TheGag96
+ *
+ *  A GUI I made to help play around with different sine shapes and visualize the waveforms they make.
+ *  Heavily inspired by these <a href="http://squine.milosz.ca/">Reddit</a> <a href="http://www.reddit.com/r/math/comments/2rbt2f/the_squine_post_yesterday_inspired_me_to_make/">posts</a>.
+ *
+ */
+public class CustomizableSine extends JFrame implements ActionListener {
+
+    public static void main(String[] args) throws IOException {
+        //batch and animation modes don't open a window, so they work with java.awt.headless=true
+        if (args.length > 0 && args[0].equals("--batch")) {
+            BatchExport.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--animate")) {
+            AnimationExport.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--import-svg")) {
+            SvgImport.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
+        new CustomizableSine();
+    }
+
+    final DrawPanel drawPanel = new DrawPanel();
+    final SpectrumPanel spectrumPanel = new SpectrumPanel();
+    final JToolBar toolBar = new JToolBar();
+    final BorderLayout layout = new BorderLayout();
+    final JButton squareButton = new JButton();
+    final JButton circleButton = new JButton();
+    final JButton triangleButton = new JButton();
+    final JButton polygonButton = new JButton();
+    final JButton drawButton = new JButton();
+    final JButton saveButton = new JButton();
+    final JButton loadButton = new JButton();
+    final JFileChooser fileChooser = new JFileChooser(".");
+    final JButton undoButton = new JButton();
+    final JButton redoButton = new JButton();
+    final DrawingHistory history = new DrawingHistory(Integer.getInteger("sine.undoLevels", 500));
+    final JLabel rotationLabel = new JLabel();
+    final JSlider rotationSlider = new JSlider();
+    final JLabel polygonLabel = new JLabel();
+    final JSlider polygonSlider = new JSlider();
+    final JLabel frequencyLabel = new JLabel();
+    final JSlider frequencySlider = new JSlider();
+    final JLabel amplitudeLabel = new JLabel();
+    final JSlider amplitudeSlider = new JSlider();
+    final JButton stackButton = new JButton();
+    final JButton clearStackButton = new JButton();
+    final JToggleButton spectrumButton = new JToggleButton();
+    final SpectrumAnalyzer spectrum = new SpectrumAnalyzer(Integer.getInteger("sine.spectrumSize", 4096), new Runnable() {
+        @Override
+        public void run() {
+            spectrumPanel.repaint();    //safe from any thread
+        }
+    });
+    final SimulationClock clock = new SimulationClock(DrawPanel.stepNanos, 60);
+    final FrameStats stats = new FrameStats();
+    final JToggleButton statsButton = new JToggleButton();
+    final JToggleButton soundButton = new JToggleButton();
+    final AudioEngine audio = new AudioEngine(Integer.getInteger("sine.audio.rate", 44100),
+                                              Integer.getInteger("sine.audio.buffer", 512),
+                                              new File("sine-audio.wav"), new Runnable() {
+        @Override
+        public void run() {
+            //called on the audio thread when there's nowhere to play to
+            SwingUtilities.invokeLater(new Runnable() {
+                @Override
+                public void run() {
+                    soundButton.setSelected(false);
+                    JOptionPane.showMessageDialog(CustomizableSine.this, "Couldn't play sound: " + audio.getError());
+                }
+            });
+        }
+    });
+    final JToggleButton streamButton = new JToggleButton();
+    //made when Stream is first pressed, so bad sine.stream.* settings only get in the way of streaming
+    SampleStream stream;
+    //pitch of the audio at a frequency slider setting of 1.0
+    final double baseAudioFrequency = Double.parseDouble(System.getProperty("sine.audio.baseFrequency", "110"));
+
+    public CustomizableSine() {
+        super();
+        setTitle("Customizable Sine!");
+        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        setSize(1516,589);
+        //setResizable(false);
+
+        toolBar.setLayout(new FlowLayout(FlowLayout.LEFT));
+
+        circleButton.addActionListener(this);
+        circleButton.setActionCommand("circle");
+        squareButton.addActionListener(this);
+        squareButton.setActionCommand("square");
+        triangleButton.addActionListener(this);
+        triangleButton.setActionCommand("triangle");
+        polygonButton.addActionListener(this);
+        polygonButton.setActionCommand("polygon");
+        drawButton.addActionListener(this);
+        drawButton.setActionCommand("draw");
+        polygonSlider.addChangeListener(new ChangeListener() {
+            @Override
+            public void stateChanged(ChangeEvent e) {
+                //update label (centered and multiline, of course) and create new polygon
+                polygonLabel.setText("<html><center>Sides:<br>" + polygonSlider.getValue() + "</center></html>");
+                actionPerformed(new ActionEvent(this, 0, "polygon"));
+            }
+        });
+        rotationSlider.addChangeListener(new ChangeListener() {
+            @Override
+            public void stateChanged(ChangeEvent e) {
+                //update label and create new polygon
+                rotationLabel.setText("<html><center>Rotation:<br>" + rotationSlider.getValue() + "%</center></html>");
+                performRotation();
+            }
+        });
+        frequencySlider.addChangeListener(new ChangeListener() {
+            @Override
+            public void stateChanged(ChangeEvent e) {
+                frequencyLabel.setText("<html><center>Frequency:<br>"+String.format("%.1f", frequencySlider.getValue()/10.0)+"</center></html>");
+                audio.setFrequency(baseAudioFrequency*frequencySlider.getValue()/10.0);
+                if (stream != null) stream.setFrequency(frequencySlider.getValue()/10.0);
+            }
+        });
+        amplitudeSlider.addChangeListener(new ChangeListener() {
+            @Override
+            public void stateChanged(ChangeEvent e) {
+                amplitudeLabel.setText("<html><center>Amplitude:<br>" + amplitudeSlider.getValue() + "%</center></html>");
+                drawPanel.engine.setAmplitude(amplitudeSlider.getValue()/100.0);
+                if (stream != null) stream.setAmplitude(amplitudeSlider.getValue()/100.0);
+            }
+        });
+
+        //TODO: use getClass().getResource("x.png") for image icons in release build
+        circleButton.setIcon(new ImageIcon("circle.png"));
+        squareButton.setIcon(new ImageIcon("square.png"));
+        triangleButton.setIcon(new ImageIcon("triangle.png"));
+        polygonButton.setIcon(new ImageIcon("polygon.png"));
+        drawButton.setIcon(new ImageIcon("draw.png"));
+
+        circleButton.setToolTipText("Circle");
+        squareButton.setToolTipText("Square");
+        triangleButton.setToolTipText("Triangle");
+        polygonButton.setToolTipText("Polygon");
+        drawButton.setToolTipText("Free Draw");
+
+        //free drawings go to and from shape files, and SVG outlines can be loaded as drawings too
+        saveButton.setText("Save");
+        saveButton.setToolTipText("Save the free drawing as a shape file");
+        saveButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (drawPanel.mode != 4 || drawPanel.segmentShape.isEmpty()) {
+                    JOptionPane.showMessageDialog(CustomizableSine.this, "Only free drawings can be saved.");
+                    return;
+                }
+                if (fileChooser.showSaveDialog(CustomizableSine.this) != JFileChooser.APPROVE_OPTION) return;
+
+                //dragging only moves the placement, so move a copy of the segments for real and write that out
+                //(the drawing itself stays as the undo history knows it)
+                SegmentBuffer placed = new SegmentBuffer(drawPanel.segmentShape.getLines().size());
+                drawPanel.segmentShape.getLines().copyTo(placed);
+                placed.rotate(drawPanel.shape.getAngle(), 0, 0);
+                placed.translate(drawPanel.shape.getOffsetX(), drawPanel.shape.getOffsetY());
+                try {
+                    ShapeFile.save(fileChooser.getSelectedFile().toPath(), placed, true);
+                }
+                catch (IOException ex) {
+                    JOptionPane.showMessageDialog(CustomizableSine.this, "Couldn't save: " + ex.getMessage());
+                }
+            }
+        });
+        loadButton.setText("Load");
+        loadButton.setToolTipText("Load a shape file or an SVG outline as a free drawing");
+        loadButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (fileChooser.showOpenDialog(CustomizableSine.this) != JFileChooser.APPROVE_OPTION) return;
+
+                CustomizableSine.this.actionPerformed(new ActionEvent(this, 0, "draw"));
+                long start = System.nanoTime();
+                SegmentBuffer segments;
+                try {
+                    segments = BatchExport.readSegments(fileChooser.getSelectedFile().toPath(), drawPanel.getHeight());
+                }
+                catch (IOException | RuntimeException ex) {
+                    JOptionPane.showMessageDialog(CustomizableSine.this, "Couldn't load: " + ex.getMessage());
+                    return;
+                }
+                //switching to draw mode started the history over, so the file's drawing is its first version
+                DrawingHistory.State previous = history.getCurrent();
+                DrawingHistory.State loaded = new DrawingHistory.State(SegmentList.of(segments), 0, 0, 0);
+                history.commit(loaded);
+                drawPanel.restore(loaded, previous);
+                updateHistoryButtons();
+                stats.recordShapeBuild("load", System.nanoTime() - start);
+            }
+        });
+
+        //step back and forth through the edits to a free drawing, see DrawingHistory
+        undoButton.setText("Undo");
+        undoButton.setToolTipText("Undo the last stroke, drag or rotation (Ctrl+Z)");
+        ActionListener undo = new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (drawPanel.mode != 4 || drawPanel.currentlyDrawing) return;
+                DrawingHistory.State previous = history.getCurrent();
+                DrawingHistory.State state = history.undo();
+                if (state != null) drawPanel.restore(state, previous);
+                updateHistoryButtons();
+            }
+        };
+        undoButton.addActionListener(undo);
+        redoButton.setText("Redo");
+        redoButton.setToolTipText("Redo the last undone edit (Ctrl+Y)");
+        ActionListener redo = new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (drawPanel.mode != 4 || drawPanel.currentlyDrawing) return;
+                DrawingHistory.State previous = history.getCurrent();
+                DrawingHistory.State state = history.redo();
+                if (state != null) drawPanel.restore(state, previous);
+                updateHistoryButtons();
+            }
+        };
+        redoButton.addActionListener(redo);
+        int menuKey = Toolkit.getDefaultToolkit().getMenuShortcutKeyMaskEx();
+        getRootPane().registerKeyboardAction(undo, KeyStroke.getKeyStroke(KeyEvent.VK_Z, menuKey), JComponent.WHEN_IN_FOCUSED_WINDOW);
+        getRootPane().registerKeyboardAction(redo, KeyStroke.getKeyStroke(KeyEvent.VK_Y, menuKey), JComponent.WHEN_IN_FOCUSED_WINDOW);
+        getRootPane().registerKeyboardAction(redo, KeyStroke.getKeyStroke(KeyEvent.VK_Z, menuKey | InputEvent.SHIFT_DOWN_MASK),
+                                             JComponent.WHEN_IN_FOCUSED_WINDOW);
+
+        //play the waveform as sound, with the pitch following the frequency slider
+        soundButton.setText("Sound");
+        soundButton.setToolTipText("Play the waveform");
+        soundButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (soundButton.isSelected()) {
+                    audio.setFrequency(baseAudioFrequency*frequencySlider.getValue()/10.0);
+                    audio.setShape(drawPanel.shape, drawPanel.getHeight()/2, drawPanel.rotation);
+                    drawPanel.audioDirty = false;
+                    audio.start();
+                }
+                else {
+                    audio.stop();
+                }
+            }
+        });
+
+        //send the samples to other programs over UDP, see SampleStream
+        streamButton.setText("Stream");
+        streamButton.setToolTipText("Send the samples over UDP to " + System.getProperty("sine.stream.host", "127.0.0.1")
+                                    + ":" + Integer.getInteger("sine.stream.port", 9000));
+        streamButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (streamButton.isSelected()) {
+                    if (stream == null) {
+                        try {
+                            stream = createStream();
+                        }
+                        catch (IllegalArgumentException ex) {
+                            //includes a sine.stream.rate that isn't a number
+                            streamButton.setSelected(false);
+                            JOptionPane.showMessageDialog(CustomizableSine.this, "Couldn't stream: " + ex.getMessage());
+                            return;
+                        }
+                    }
+                    stream.setFrequency(frequencySlider.getValue()/10.0);
+                    stream.setAmplitude(amplitudeSlider.getValue()/100.0);
+                    stream.setShape(drawPanel.shape.copy(), drawPanel.getHeight()/2, drawPanel.rotation);
+                    drawPanel.streamDirty = false;
+                    stream.start();
+                }
+                else if (stream != null) {
+                    stream.stop();
+                }
+            }
+        });
+
+        //freeze the current shape, rotation, frequency and amplitude as another oscillator that adds to the wave
+        stackButton.setText("Stack");
+        stackButton.setToolTipText("Keep this shape playing and add the next one on top of it");
+        stackButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                WaveEngine.Voice main = drawPanel.engine.getVoice(0);
+                drawPanel.engine.addVoice(main.withShape(main.shape.copy()));
+                stackButton.setText("Stack (" + (drawPanel.engine.getVoiceCount() - 1) + ")");
+            }
+        });
+        clearStackButton.setText("Unstack");
+        clearStackButton.setToolTipText("Remove all stacked shapes");
+        clearStackButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                drawPanel.engine.clearVoices();
+                stackButton.setText("Stack");
+            }
+        });
+
+        //show which harmonics the shape's wave is made of, under the wave
+        spectrumButton.setText("Spectrum");
+        spectrumButton.setToolTipText("Show the harmonics of the waveform");
+        spectrumButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                spectrumPanel.setVisible(spectrumButton.isSelected());
+                drawPanel.shapeChanged();
+                getContentPane().validate();
+            }
+        });
+
+        //frame timings and sizes over the wave, see FrameStats
+        statsButton.setText("Stats");
+        statsButton.setToolTipText("Show frame timings");
+        statsButton.setSelected(Boolean.getBoolean("sine.hud"));
+        statsButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                drawPanel.repaint();
+            }
+        });
+
+        //the same numbers for jconsole and friends
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(stats, new ObjectName("customizablesine:type=FrameStats"));
+        }
+        catch (JMException e) {
+            System.err.println("couldn't register frame stats MBean: " + e.getMessage());
+        }
+
+        amplitudeSlider.setMinimum(0);
+        amplitudeSlider.setMaximum(100);
+        amplitudeSlider.setPaintTicks(true);
+        amplitudeSlider.setMinorTickSpacing(10);
+        amplitudeSlider.setMajorTickSpacing(50);
+        amplitudeSlider.setValue(100);
+
+        frequencySlider.setMinimum(0);
+        frequencySlider.setMaximum(40);
+        frequencySlider.setPaintTicks(true);
+        frequencySlider.setMinorTickSpacing(5);
+        frequencySlider.setMajorTickSpacing(10);
+        frequencySlider.setValue(10);
+
+        rotationSlider.setMinimum(0);
+        rotationSlider.setMaximum(100);
+        rotationSlider.setPaintTicks(true);
+        rotationSlider.setMinorTickSpacing(10);
+        rotationSlider.setMajorTickSpacing(50);
+        rotationSlider.setValue(0);
+
+        polygonSlider.setMinimum(3);
+        polygonSlider.setMaximum(15);
+        polygonSlider.setValue(3);
+        polygonSlider.setMinorTickSpacing(1);
+        polygonSlider.setMajorTickSpacing(12);
+        polygonSlider.setSnapToTicks(true);
+        polygonSlider.setPaintTicks(true);
+        polygonSlider.setVisible(false);
+        //polygonSlider.setPaintLabels(true);   //note: resizes toolbar due to size
+        polygonLabel.setVisible(false);
+
+        Container contentPane = getContentPane();
+        toolBar.add(circleButton);
+        toolBar.add(squareButton);
+        toolBar.add(triangleButton);
+        toolBar.add(polygonButton);
+        toolBar.add(drawButton);
+        toolBar.add(saveButton);
+        toolBar.add(loadButton);
+        toolBar.add(undoButton);
+        toolBar.add(redoButton);
+        toolBar.add(new JToolBar.Separator());
+        toolBar.add(frequencyLabel);
+        toolBar.add(frequencySlider);
+        toolBar.add(amplitudeLabel);
+        toolBar.add(amplitudeSlider);
+        toolBar.add(rotationLabel);
+        toolBar.add(rotationSlider);
+        toolBar.add(polygonLabel);
+        toolBar.add(polygonSlider);
+        toolBar.add(new JToolBar.Separator());
+        toolBar.add(soundButton);
+        toolBar.add(streamButton);
+        toolBar.add(spectrumButton);
+        toolBar.add(statsButton);
+        toolBar.add(new JToolBar.Separator());
+        toolBar.add(stackButton);
+        toolBar.add(clearStackButton);
+        contentPane.setLayout(new BorderLayout());
+        contentPane.add(toolBar,BorderLayout.NORTH);
+        contentPane.add(drawPanel);
+        spectrumPanel.setPreferredSize(new Dimension(0, 120));
+        spectrumPanel.setVisible(false);
+        contentPane.add(spectrumPanel, BorderLayout.SOUTH);
+
+        //create timer that polls the simulation clock and repaints (a little faster than 60 fps)
+        //the simulation runs however many fixed steps have passed since the last tick, so late or extra ticks
+        //don't change how fast the wave moves
+        Timer timer = new Timer(1000/60, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                long start = System.nanoTime();
+                int steps = clock.advance(start);
+                drawPanel.step(steps);
+                stats.recordSteps(steps, clock.getDroppedSteps(), System.nanoTime() - start);
+                drawPanel.repaint();
+
+                //hand the analyzer the newest shape once it's done with the last one, so at most one copy of the
+                //shape gets made per frame no matter how fast it's being dragged around
+                if (drawPanel.spectrumDirty && spectrumPanel.isVisible() && spectrum.isIdle()) {
+                    spectrum.submit(drawPanel.shape.copy(), drawPanel.getHeight()/2, drawPanel.rotation);
+                    drawPanel.spectrumDirty = false;
+                }
+                //the audio table gets sampled from the shape right here, but also just once per frame
+                if (drawPanel.audioDirty && audio.isRunning()) {
+                    audio.setShape(drawPanel.shape, drawPanel.getHeight()/2, drawPanel.rotation);
+                    drawPanel.audioDirty = false;
+                }
+                //same for the stream, which needs its own copy to keep going around on its thread
+                if (drawPanel.streamDirty && stream != null && stream.isRunning()) {
+                    stream.setShape(drawPanel.shape.copy(), drawPanel.getHeight()/2, drawPanel.rotation);
+                    drawPanel.streamDirty = false;
+                }
+            }
+        });
+
+        setVisible(true);
+        actionPerformed(new ActionEvent(this, 0, "circle"));
+        timer.start();
+    }
+
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        long start = System.nanoTime();
+        String command = e.getActionCommand();
+        if (command.equals("circle")) {
+            circleButton.setEnabled(false);
+            squareButton.setEnabled(true);
+            triangleButton.setEnabled(true);
+            polygonButton.setEnabled(true);
+            drawButton.setEnabled(true);
+            drawPanel.mode = 0;
+            rotationSlider.setEnabled(true);
+            polygonSlider.setVisible(false);
+            polygonLabel.setVisible(false);
+            rotationSlider.setValue(0);
+
+            drawPanel.newDrawing();
+            drawPanel.waveTrace.clear();
+
+            drawPanel.shape = new TransformedShape(ShapePresets.circle(drawPanel.getHeight()));
+        }
+        else if (command.equals("square")) {
+            circleButton.setEnabled(true);
+            squareButton.setEnabled(false);
+            triangleButton.setEnabled(true);
+            polygonButton.setEnabled(true);
+            drawButton.setEnabled(true);
+            drawPanel.mode = 1;
+            rotationSlider.setEnabled(true);
+            polygonSlider.setVisible(false);
+            polygonLabel.setVisible(false);
+            rotationSlider.setValue(0);
+
+            drawPanel.newDrawing();
+            drawPanel.waveTrace.clear();
+
+            drawPanel.shape = new TransformedShape(ShapePresets.square(drawPanel.getHeight()));
+        }
+        else if (command.equals("triangle")) {
+            circleButton.setEnabled(true);
+            squareButton.setEnabled(true);
+            triangleButton.setEnabled(false);
+            polygonButton.setEnabled(true);
+            drawButton.setEnabled(true);
+            drawPanel.mode = 2;
+            rotationSlider.setEnabled(true);
+            polygonSlider.setVisible(false);
+            polygonLabel.setVisible(false);
+            rotationSlider.setValue(0);
+
+            drawPanel.newDrawing();
+            drawPanel.waveTrace.clear();
+
+            drawPanel.shape = new TransformedShape(ShapePresets.triangle(drawPanel.getHeight()));
+        }
+        else if (command.equals("polygon")) {
+            circleButton.setEnabled(true);
+            squareButton.setEnabled(true);
+            triangleButton.setEnabled(true);
+            polygonButton.setEnabled(false);
+            drawButton.setEnabled(true);
+            drawPanel.mode = 3;
+            rotationSlider.setEnabled(true);
+            polygonSlider.setVisible(true);
+            polygonLabel.setVisible(true);
+            rotationSlider.setValue(0);
+
+            drawPanel.newDrawing();
+            drawPanel.waveTrace.clear();
+
+            drawPanel.shape = new TransformedShape(ShapePresets.polygon(drawPanel.getHeight(), polygonSlider.getValue()));
+        }
+        else if (command.equals("draw")) {
+            circleButton.setEnabled(true);
+            squareButton.setEnabled(true);
+            triangleButton.setEnabled(true);
+            polygonButton.setEnabled(true);
+            drawButton.setEnabled(false);
+            drawPanel.mode = 4;
+            rotationSlider.setEnabled(true);
+            polygonSlider.setVisible(false);
+            polygonLabel.setVisible(false);
+            rotationSlider.setValue(0);
+
+            drawPanel.newDrawing();
+            drawPanel.waveTrace.clear();
+            history.reset(DrawingHistory.EMPTY);
+
+            //free drawings have no closed form, so they go through the segment path
+            drawPanel.shape = new TransformedShape(drawPanel.segmentShape);
+        }
+
+        drawPanel.shapeChanged();
+        updateHistoryButtons();
+        stats.recordShapeBuild(command, System.nanoTime() - start);
+    }
+
+    //undo and redo only apply to free drawings
+    void updateHistoryButtons() {
+        undoButton.setEnabled(drawPanel.mode == 4 && history.canUndo());
+        redoButton.setEnabled(drawPanel.mode == 4 && history.canRedo());
+    }
+
+    //from the sine.stream.* settings; throws IllegalArgumentException if they don't make sense
+    SampleStream createStream() {
+        return new SampleStream(new InetSocketAddress(System.getProperty("sine.stream.host", "127.0.0.1"),
+                                                      Integer.getInteger("sine.stream.port", 9000)),
+                                Double.parseDouble(System.getProperty("sine.stream.rate", "2000")),
+                                Integer.getInteger("sine.stream.batch", 32),
+                                "osc".equals(System.getProperty("sine.stream.format")), new Runnable() {
+            @Override
+            public void run() {
+                //called on the stream thread when it couldn't get a socket
+                SwingUtilities.invokeLater(new Runnable() {
+                    @Override
+                    public void run() {
+                        streamButton.setSelected(false);
+                        JOptionPane.showMessageDialog(CustomizableSine.this, "Couldn't stream: " + stream.getError());
+                    }
+                });
+            }
+        });
+    }
+
+    public void performRotation() {
+        long start = System.nanoTime();
+        //rotation is just an offset into the radial profile, so there's nothing to rebuild here
+        drawPanel.rotation = 2*Math.PI*rotationSlider.getValue()/100;
+        drawPanel.shapeChanged();
+        stats.recordShapeBuild("rotation", System.nanoTime() - start);
+    }
+
+    public class DrawPanel extends JPanel implements MouseMotionListener, MouseListener {
+        //the stroke being drawn goes in here, after the segments it's added to if any
+        public SegmentBuffer drawingLines;
+        public final WaveTrace waveTrace = new WaveTrace();
+        public final FrameRenderer layers = new FrameRenderer();
+        public SegmentShape segmentShape;
+        public StrokeSimplifier stroke;
+        //the version a stroke was added to (EMPTY for a new drawing), and how to get from the screen to where the
+        //stroke goes in it
+        private SegmentList strokeBase = SegmentList.EMPTY;
+        private final AffineTransform toDrawing = new AffineTransform();
+        private final double[] strokePoint = new double[2];
+        public TransformedShape shape;
+        //the wave comes from here; the shape being edited is the main voice, anything stacked comes after it
+        public final WaveEngine engine;
+        //steps the wave hasn't caught up with yet, while a big stack of voices is being summed in the background
+        private int pendingSteps;
+
+        //puts the engine's samples on the trace, with extra ones between the ray's positions at the two ends of each
+        //step if asked for
+        public final WaveSampler sampler;
+        private int lastX, lastY, originalX, originalY;
+        private double rotation;
+        private double intersectX = -1, intersectY = -1;
+        private boolean currentlyDrawing = false;
+        private boolean spectrumDirty = true, streamDirty = true, audioDirty = true;
+        private final Color hudBackground = new Color(255, 255, 255, 200);
+        public int mode; //0: circle, 1: square, 2: triangle, 3: draw
+
+        public int drawRegionSize;
+        public static final int waveSpeed = 2;
+        public static final long stepNanos = 16000000;   //one simulation step, matching the timer's 1000/60 ms
+
+        public DrawPanel() {
+            super();
+            setBackground(Color.white);
+            addMouseMotionListener(this);
+            addMouseListener(this);
+            newDrawing();
+            shape = new TransformedShape(segmentShape);
+            engine = new WaveEngine(shape, getHeight()/2);
+            engine.setMissValue(Double.NaN);
+            sampler = new WaveSampler(engine, waveTrace, Integer.getInteger("sine.subsamples", 1),
+                                      Boolean.getBoolean("sine.subsamples.adaptive"),
+                                      Double.parseDouble(System.getProperty("sine.subsamples.tolerance", "0.5")));
+            mode = 0;
+            drawRegionSize = getHeight();
+            lastX = -1;
+            lastY = -1;
+        }
+
+        @Override
+        /**
+         *
+         *  Draws the latest simulation state (see step(int) for the logic that moves things along)
+         *
+         */
+        public void paint(Graphics g) {
+            stats.beginFrame();
+            super.paint(g);
+
+            drawRegionSize = getHeight();
+
+            //everything but the ray comes out of cached layers, see FrameRenderer
+            layers.render(g, getWidth(), getHeight(), shape, rotation, waveTrace, waveSpeed, intersectX, intersectY);
+
+            //draw line to starting point that gets updated every frame
+            if (mode == 4 && currentlyDrawing) {
+                g.setColor(Color.black);
+                g.drawLine(originalX, originalY, lastX, lastY);
+            }
+
+            stats.endFrame(segmentShape.getLines().size(), waveTrace.size(), engine.getVoiceCount());
+
+            //the HUD goes on after the frame is timed, so it doesn't count itself
+            if (statsButton.isSelected()) {
+                String[] lines = stats.getSummary();
+                int x = drawRegionSize + 10, y = 10, lineHeight = g.getFontMetrics().getHeight();
+                g.setColor(hudBackground);
+                g.fillRect(x, y, 260, lines.length*lineHeight + 8);
+                g.setColor(Color.darkGray);
+                for (int i = 0; i < lines.length; i++) {
+                    g.drawString(lines[i], x + 5, y + (i+1)*lineHeight);
+                }
+            }
+        }
+
+
+        /**
+         *  Starts a new, empty free drawing with its own segments to draw a stroke into.
+         */
+        public void newDrawing() {
+            drawingLines = new SegmentBuffer();
+            segmentShape = new SegmentShape(drawingLines, Integer.getInteger("sine.profileSize", 8192));
+            stroke = new StrokeSimplifier(drawingLines, Double.parseDouble(System.getProperty("sine.drawTolerance", "1")));
+        }
+
+        /**
+         *  Shows a version of the drawing from the history. Undoing a drag or a rotation only moves the placement.
+         *  Anything else swaps in a shape that reads the version's segments straight out of the history, without
+         *  copying them; its index is built the first time the ray needs it.
+         */
+        public void restore(DrawingHistory.State state, DrawingHistory.State showing) {
+            if (state.segments != showing.segments) {
+                segmentShape = new SegmentShape(state.segments, Integer.getInteger("sine.profileSize", 8192));
+                shape = new TransformedShape(segmentShape);
+            }
+            shape.setPlacement(state.angle, state.offsetX, state.offsetY);
+            shapeChanged();
+        }
+
+        //moves a point on screen into the drawing's own coordinates, undoing its placement (see TransformedShape)
+        private double[] toDrawing(double x, double y) {
+            strokePoint[0] = x;
+            strokePoint[1] = y;
+            toDrawing.transform(strokePoint, 0, strokePoint, 0, 1);
+            return strokePoint;
+        }
+
+        /**
+         *  Call whenever the shape or its rotation changes, so everything derived from it gets updated.
+         */
+        public void shapeChanged() {
+            engine.setShape(shape);
+            engine.setRotation(rotation);
+            layers.invalidate();
+            spectrumDirty = true;
+            streamDirty = true;
+            audioDirty = true;
+        }
+
+        /**
+         *  Advances the simulation by the given number of fixed steps: moves the rays and adds one sample of the
+         *  summed wave per step, or more with subsampling (see WaveSampler).
+         *
+         *  This runs on the Swing thread, so it never waits for a big stack of voices to be summed. Those are worked
+         *  out a block ahead in the background (see WaveEngine.fillReady), and the wave catches up on whatever steps
+         *  weren't ready yet on a later tick.
+         */
+        public void step(int steps) {
+            if (steps <= 0) return;
+
+            //one sample per step, with a step every 0.016 s; this makes the frequency slider read in turns per second
+            double sampleRate = 1e9/stepNanos;
+            engine.setFrequency(frequencySlider.getValue()/10.0);
+
+            intersectX = -1;
+            intersectY = -1;
+
+            //if we're drawing or there is no drawing, there's no intersection and nothing to add to the wave
+            if (currentlyDrawing || engine.isEmpty()) {
+                engine.skip(pendingSteps + steps, sampleRate);
+                pendingSteps = 0;
+                return;
+            }
+
+            drawRegionSize = getHeight();
+            double center = drawRegionSize /2;
+
+            engine.setCenter(center);
+
+            //a stack too slow to keep up gets steps dropped, like the simulation clock does
+            pendingSteps = Math.min(pendingSteps + steps, 60);
+
+            //scroll the wave by one step per step; the ring holds just enough samples to reach the right edge
+            waveTrace.setCapacity(((getWidth() - drawRegionSize) / waveSpeed + 2)*sampler.getSubsamples());
+            pendingSteps -= sampler.sample(pendingSteps, sampleRate, center);
+
+            //find intersection from center to the nearest point on the drawing, for the ray as it is now
+            double angle = engine.getAngle(0);
+            double radius = shape.radius(center, center, -angle - rotation);
+            if (radius == radius) {
+                intersectX = center + radius*Math.cos(-angle);
+                intersectY = center + radius*Math.sin(-angle);
+            }
+        }
+
+        @Override
+        public void mouseDragged(MouseEvent e) {
+            //only within the drawing region!
+            if (e.getX() >= drawRegionSize || e.getX() < 0 || e.getY() < 0 || e.getY() > drawRegionSize) return;
+
+            //left click only (special code for mousemotionlistener hooks)
+            if (SwingUtilities.isLeftMouseButton(e) && mode == 4) {
+                //when the mouse gets dragged, extend our drawing to this point (the simplifier drops points that
+                //wouldn't change its shape)
+                if (currentlyDrawing) {
+                    double[] point = toDrawing(e.getX(), e.getY());
+                    if (stroke.add(point[0], point[1])) {
+                        segmentShape.invalidate();
+                        shapeChanged();
+                    }
+                }
+            }
+            else if (SwingUtilities.isRightMouseButton(e) && lastX != -1) {    //right click to drag image!
+                //the slider rotation is applied on top of the shape's placement, so turn the mouse movement back by it first
+                double dx = (e.getX() - lastX)*Math.cos(rotation) + (e.getY() - lastY)*Math.sin(rotation);
+                double dy = (e.getY() - lastY)*Math.cos(rotation) - (e.getX() - lastX)*Math.sin(rotation);
+                shape.translate(dx, dy);
+                shapeChanged();
+            }
+
+            //save last positions for next drag
+            lastX = e.getX();
+            lastY = e.getY();
+        }
+
+        @Override
+        public void mouseMoved(MouseEvent e) {
+
+        }
+
+        @Override
+        public void mouseClicked(MouseEvent e) {
+
+        }
+
+        @Override
+        public void mousePressed(MouseEvent e) {
+            //within the region only!
+            if (e.getX() >= drawRegionSize || e.getX() < 0 || e.getY() < 0 || e.getY() > drawRegionSize) return;
+
+            //if we're drawing, clear current drawing (or with shift held, add to it), store our starting x and y
+            //mouse positions for later
+            if (e.getButton() == MouseEvent.BUTTON1 && mode == 4) {
+                DrawingHistory.State base = e.isShiftDown() ? history.getCurrent() : DrawingHistory.EMPTY;
+                strokeBase = base.segments;
+                newDrawing();
+                strokeBase.copyTo(drawingLines);
+                waveTrace.clear();
+                shape = new TransformedShape(segmentShape);
+                shape.setPlacement(base.angle, base.offsetX, base.offsetY);
+                toDrawing.setToRotation(-base.angle);
+                toDrawing.translate(-base.offsetX, -base.offsetY);
+                double[] point = toDrawing(e.getX(), e.getY());
+                stroke.begin(point[0], point[1]);
+                shapeChanged();
+                currentlyDrawing = true;
+            }
+
+            originalX = e.getX();
+            originalY = e.getY();
+            lastX = e.getX();
+            lastY = e.getY();
+        }
+
+        @Override
+        public void mouseReleased(MouseEvent e) {
+            //handle left clicking in drawing mode (a press outside the region didn't start a stroke, and the
+            //drawing that's showing belongs to the history, so there's nothing to finish)
+            if (e.getButton() == MouseEvent.BUTTON1 && mode == 4 && currentlyDrawing) {
+                //simplify the whole stroke now that we have all of it
+                stroke.finish();
+
+                //finish off the drawing with a line back to the starting point from the current one
+                if (e.getX() < drawRegionSize) {
+                    double[] point = toDrawing(originalX, originalY);
+                    double startX = point[0], startY = point[1];
+                    point = toDrawing(e.getX(), e.getY());
+                    drawingLines.add(startX, startY, point[0], point[1]);
+                }
+                segmentShape.invalidate();
+                currentlyDrawing = false;
+
+                //the new version shares everything but the stroke (and the last chunk before it) with the one it
+                //was added to
+                history.commit(new DrawingHistory.State(strokeBase.append(drawingLines, strokeBase.size()), 0, 0, 0)
+                               .withPlacement(shape));
+                updateHistoryButtons();
+            }
+
+            if (e.getButton() == 3 && rotationSlider.getValue() != 0) {
+                //fold the rotation into the shape's placement, since this is our "new" drawing to be rotated
+                shape.rotate(rotation, getHeight()/2, getHeight()/2);
+                System.out.println("zing");
+            }
+
+            //a drag or rotation only moves the placement, so the new version shares the last one's segments
+            if (e.getButton() == 3 && mode == 4) {
+                history.commit(history.getCurrent().withPlacement(shape));
+                updateHistoryButtons();
+            }
+
+            shapeChanged();
+
+            rotationSlider.setValue(0);
+        }
+
+        @Override
+        public void mouseEntered(MouseEvent e) {
+
+        }
+
+        @Override
+        public void mouseExited(MouseEvent e) {
+
+        }
+    }
+
+    /**
+     *  Bars for the first harmonics of the latest spectrum, in decibels below the strongest one. Only ever reads
+     *  whatever result the analyzer last published, so painting never waits on it.
+     */
+    public class SpectrumPanel extends JPanel {
+        private static final long serialVersionUID = 1L;
+
+        public static final int shownHarmonics = 64;
+        public static final double floorDecibels = -80;
+
+        public SpectrumPanel() {
+            super();
+            setBackground(Color.white);
+        }
+
+        @Override
+        public void paint(Graphics g) {
+            super.paint(g);
+
+            double[] harmonics = spectrum.getHarmonics();
+            int count = Math.min(shownHarmonics, harmonics.length - 1);
+            if (count <= 0) return;
+
+            double peak = 0;
+            for (int k = 1; k <= count; k++) {
+                peak = Math.max(peak, harmonics[k]);
+            }
+
+            int top = 5, bottom = getHeight() - 15;
+            double barWidth = (double) getWidth()/count;
+
+            g.setColor(Color.gray.brighter());
+            g.drawLine(0, bottom, getWidth(), bottom);
+
+            for (int k = 1; k <= count; k++) {
+                //decibels below the peak, scaled so the floor sits on the axis
+                double level = peak > 0 && harmonics[k] > 0 ? 20*Math.log10(harmonics[k]/peak) : floorDecibels;
+                double fraction = Math.max(0, 1 - level/floorDecibels);
+                int x = (int) ((k-1)*barWidth);
+                int height = (int) (fraction*(bottom - top));
+
+                g.setColor(Color.red);
+                g.fillRect(x + 1, bottom - height, Math.max(1, (int) barWidth - 2), height);
+
+                if (k == 1 || k % 8 == 0) {
+                    g.setColor(Color.gray);
+                    g.drawString(Integer.toString(k), x + 2, getHeight() - 2);
+                }
+            }
+
+            g.setColor(Color.gray);
+            g.drawString(String.format("fundamental %.3f, %.0f dB floor", harmonics[1], floorDecibels), getWidth() - 220, 15);
+        }
+    }
+}
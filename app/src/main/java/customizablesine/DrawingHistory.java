@@ -0,0 +1,109 @@
+package customizablesine;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ *  Undo and redo for a free drawing.
+ *
+ *  Every version of the drawing is a State: its segments as a SegmentList, plus the placement of the shape on top
+ *  of them (see TransformedShape). Dragging or rotating only changes the placement, so those versions all point at
+ *  the same list and cost a few doubles each. A stroke added to the drawing gets a list that shares all but the
+ *  last chunk of the one before, so it costs about as much as the stroke; a new drawing or a loaded file gets a list
+ *  of its own. Undoing and redoing just move States between the two stacks, and showing the version that comes out
+ *  is up to the caller, which can build a shape straight from its list (see SegmentShape).
+ *
+ *  Only the given number of versions are kept; the oldest are forgotten first.
+ */
+public class DrawingHistory {
+
+    /**
+     *  One version of the drawing. Immutable.
+     */
+    public static final class State {
+        public final SegmentList segments;
+        public final double angle, offsetX, offsetY;
+
+        public State(SegmentList segments, double angle, double offsetX, double offsetY) {
+            this.segments = segments;
+            this.angle = angle;
+            this.offsetX = offsetX;
+            this.offsetY = offsetY;
+        }
+
+        /**
+         *  Returns this version with the placement of the given shape, sharing the segments.
+         */
+        public State withPlacement(TransformedShape shape) {
+            return new State(segments, shape.getAngle(), shape.getOffsetX(), shape.getOffsetY());
+        }
+    }
+
+    public static final State EMPTY = new State(SegmentList.EMPTY, 0, 0, 0);
+
+    private final int levels;
+    private final Deque<State> undo = new ArrayDeque<State>(), redo = new ArrayDeque<State>();
+    private State current = EMPTY;
+
+    /**
+     *  @param levels  how many edits can be undone
+     */
+    public DrawingHistory(int levels) {
+        this.levels = levels;
+    }
+
+    public State getCurrent() {
+        return current;
+    }
+
+    /**
+     *  Forgets everything and starts over from the given version.
+     */
+    public void reset(State state) {
+        undo.clear();
+        redo.clear();
+        current = state;
+    }
+
+    /**
+     *  Records an edit that turned the current version into the given one. Anything that was undone can't be
+     *  redone after this.
+     */
+    public void commit(State state) {
+        if (state.segments == current.segments && state.angle == current.angle
+            && state.offsetX == current.offsetX && state.offsetY == current.offsetY) return;
+
+        undo.push(current);
+        if (undo.size() > levels) undo.removeLast();
+        redo.clear();
+        current = state;
+    }
+
+    public boolean canUndo() {
+        return !undo.isEmpty();
+    }
+
+    public boolean canRedo() {
+        return !redo.isEmpty();
+    }
+
+    /**
+     *  Goes back one edit and returns the version to show, or null if there's nothing to undo.
+     */
+    public State undo() {
+        if (undo.isEmpty()) return null;
+        redo.push(current);
+        current = undo.pop();
+        return current;
+    }
+
+    /**
+     *  Goes forward again after an undo and returns the version to show, or null if there's nothing to redo.
+     */
+    public State redo() {
+        if (redo.isEmpty()) return null;
+        undo.push(current);
+        current = redo.pop();
+        return current;
+    }
+}
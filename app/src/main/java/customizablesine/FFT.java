@@ -0,0 +1,66 @@
+package customizablesine;
+
+/**
+ *  An in-place radix-2 fast Fourier transform for one fixed power-of-two size.
+ *
+ *  The twiddle factors and the bit reversal permutation are worked out once in the constructor, so transforming
+ *  doesn't allocate anything or call any trig functions.
+ */
+public class FFT {
+    private final int size;
+    private final double[] cos, sin;
+    private final int[] reversed;
+
+    public FFT(int size) {
+        if (size < 2 || (size & (size - 1)) != 0) throw new IllegalArgumentException("size must be a power of two: " + size);
+        this.size = size;
+
+        cos = new double[size/2];
+        sin = new double[size/2];
+        for (int i = 0; i < size/2; i++) {
+            cos[i] = Math.cos(2*Math.PI*i/size);
+            sin[i] = -Math.sin(2*Math.PI*i/size);
+        }
+
+        reversed = new int[size];
+        int bits = Integer.numberOfTrailingZeros(size);
+        for (int i = 0; i < size; i++) {
+            reversed[i] = Integer.reverse(i) >>> (32 - bits);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     *  Replaces (re, im) with its discrete Fourier transform, X[k] = sum of x[n]*e^(-2*pi*i*k*n/size). Both
+     *  arrays must be exactly size long.
+     */
+    public void transform(double[] re, double[] im) {
+        for (int i = 0; i < size; i++) {
+            int j = reversed[i];
+            if (j > i) {
+                double t = re[i]; re[i] = re[j]; re[j] = t;
+                t = im[i]; im[i] = im[j]; im[j] = t;
+            }
+        }
+
+        //butterflies, doubling the length of the sub-transforms each pass
+        for (int length = 2; length <= size; length <<= 1) {
+            int half = length/2, stride = size/length;
+            for (int start = 0; start < size; start += length) {
+                for (int k = 0; k < half; k++) {
+                    double wr = cos[k*stride], wi = sin[k*stride];
+                    int a = start + k, b = a + half;
+                    double tr = re[b]*wr - im[b]*wi;
+                    double ti = re[b]*wi + im[b]*wr;
+                    re[b] = re[a] - tr;
+                    im[b] = im[a] - ti;
+                    re[a] += tr;
+                    im[a] += ti;
+                }
+            }
+        }
+    }
+}
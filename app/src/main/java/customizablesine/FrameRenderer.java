@@ -0,0 +1,142 @@
+package customizablesine;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ *  Draws the whole view (shape, crosshair, divider, wave axis, wave and ray) while caching everything that doesn't
+ *  change from frame to frame.
+ *
+ *  The shape and all the chrome go into one image that's only redrawn after invalidate() or a resize. The wave has
+ *  its own transparent image on top of that, which gets scrolled with copyArea so only the samples added since
+ *  the last frame have to be drawn. That leaves the ray as the only thing drawn from scratch every frame.
+ */
+public class FrameRenderer {
+    private BufferedImage staticLayer, waveLayer;
+    private Graphics2D waveGraphics;
+    private boolean staticDirty = true;
+    private long drawnPushes = -1, drawnClears = -1;
+    private double drawnTime;
+
+    /**
+     *  Marks the shape layer as out of date. Call this whenever the shape or its rotation changes.
+     */
+    public void invalidate() {
+        staticDirty = true;
+    }
+
+    /**
+     *  Draws a full frame. The drawing region is the square on the left side, height x height.
+     *
+     *  @param intersectX  where the ray hits the shape, or -1 if it doesn't (or there's nothing to show yet)
+     */
+    public void render(Graphics g, int width, int height, RadialShape shape, double rotation,
+                       WaveTrace trace, int waveSpeed, double intersectX, double intersectY) {
+        if (width <= 0 || height <= 0) return;
+
+        if (staticLayer == null || staticLayer.getWidth() != width || staticLayer.getHeight() != height) {
+            //make the layers in the same format as whatever we're drawing to, so blitting them is a plain copy
+            GraphicsConfiguration config = ((Graphics2D) g).getDeviceConfiguration();
+            staticLayer = config.createCompatibleImage(width, height, Transparency.OPAQUE);
+            waveLayer = config.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+            if (waveGraphics != null) waveGraphics.dispose();
+            waveGraphics = waveLayer.createGraphics();
+            //copyArea goes through the composite too, so transparent pixels have to replace what's under them
+            waveGraphics.setComposite(AlphaComposite.Src);
+            staticDirty = true;
+            drawnPushes = -1;
+        }
+
+        if (staticDirty) {
+            Graphics2D layer = staticLayer.createGraphics();
+            drawStatic(layer, width, height, shape, rotation);
+            layer.dispose();
+            staticDirty = false;
+        }
+
+        updateWave(waveGraphics, width, height, trace, waveSpeed);
+
+        int drawRegionSize = height;
+        g.drawImage(staticLayer, 0, 0, null);
+        g.drawImage(waveLayer, drawRegionSize, 0, width, height, drawRegionSize, 0, width, height, null);
+
+        //draw line from center to new intersection point, highlight point and draw red line from it to divider
+        if (intersectX != -1) {
+            double center = drawRegionSize /2;
+            g.setColor(Color.red);
+            g.drawLine((int) center, (int) center, (int) intersectX, (int) intersectY);
+            g.fillOval((int) intersectX - 3, (int) intersectY - 3, 6, 6);
+            g.drawLine((int) intersectX, (int) intersectY, drawRegionSize, (int) intersectY);
+        }
+    }
+
+    private void drawStatic(Graphics2D g, int width, int height, RadialShape shape, double rotation) {
+        int drawRegionSize = height;
+        double center = drawRegionSize /2;
+
+        g.setColor(Color.white);
+        g.fillRect(0, 0, width, height);
+
+        //draw all lines of the drawing, turned around the center by the current rotation
+        g.setColor(Color.black);
+        g.rotate(rotation, center, center);
+        shape.draw(g);
+        g.rotate(-rotation, center, center);
+
+        //draw crosshair
+        g.setColor(Color.gray);
+        g.drawLine((int) center - 10, (int) center, (int) center + 10, (int) center);
+        g.drawLine((int) center, (int) center - 10, (int) center, (int) center + 10);
+
+        //make sure drawing lines don't make their way into the wave region
+        g.setColor(Color.white);
+        g.fillRect(drawRegionSize+1, 0, width, height);
+
+        //draw divider and wave x-axis line
+        g.setColor(Color.gray);
+        g.drawLine(drawRegionSize, 0, drawRegionSize, drawRegionSize);
+        g.setColor(Color.gray.brighter());
+        g.drawLine(drawRegionSize + 1, height / 2, width, height / 2);
+
+        //givin' myself some props
+        g.setColor(Color.gray.brighter());
+        g.drawString("made by TheGag96", width - 115, height - 10);
+    }
+
+    private void updateWave(Graphics2D g, int width, int height, WaveTrace trace, int waveSpeed) {
+        int drawRegionSize = height;
+        long pending = trace.getPushCount() - drawnPushes;
+        //the newest sample always lands on a whole step, so this is a whole number of pixels
+        int shift = pending > 0 && pending < trace.size() ? (int) Math.round((trace.getTime(0) - drawnTime)*waveSpeed) : 0;
+
+        if (drawnPushes == -1 || trace.getClearCount() != drawnClears || pending >= trace.size()
+            || shift >= width - drawRegionSize) {
+            //too much changed to scroll, so start over from the whole trace
+            clear(g, drawRegionSize, 0, width - drawRegionSize, height);
+            g.setColor(Color.red);
+            trace.draw(g, drawRegionSize, waveSpeed);
+        }
+        else if (pending > 0) {
+            //shift what's there over and only draw the new samples in the gap left behind
+            g.copyArea(drawRegionSize, 0, width - drawRegionSize - shift, height, shift, 0);
+            clear(g, drawRegionSize, 0, shift, height);
+
+            g.setColor(Color.red);
+            for (int age = 0; age < pending; age++) {
+                g.drawLine(drawRegionSize + trace.offset(age, waveSpeed), (int) trace.get(age),
+                           drawRegionSize + trace.offset(age+1, waveSpeed), (int) trace.get(age+1));
+            }
+        }
+
+        drawnPushes = trace.getPushCount();
+        drawnTime = trace.size() > 0 ? trace.getTime(0) : 0;
+        drawnClears = trace.getClearCount();
+    }
+
+    private static void clear(Graphics2D g, int x, int y, int width, int height) {
+        Composite composite = g.getComposite();
+        g.setComposite(AlphaComposite.Clear);
+        g.fillRect(x, y, width, height);
+        g.setComposite(composite);
+    }
+}
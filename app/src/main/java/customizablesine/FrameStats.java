@@ -0,0 +1,256 @@
+package customizablesine;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+
+/**
+ *  Timing and counts for every frame, cheap enough to always be on.
+ *
+ *  Everything is collected into plain long fields on the Swing thread, so recording a frame doesn't allocate.
+ *  Once a window of frames is complete, the averages and maximums are published to volatile fields for the HUD
+ *  and the MBean to read from any thread. Each frame and each shape build also goes out as a Flight Recorder event
+ *  when a recording is running (JFR throws the event objects away unused when it isn't).
+ *
+ *  Allocation is measured per thread with the HotSpot extension of ThreadMXBean, if the JVM has it.
+ */
+public class FrameStats implements FrameStatsMBean {
+    public static final int WINDOW_FRAMES = 60;
+
+    private final com.sun.management.ThreadMXBean allocation;
+
+    //the frame in progress
+    private long frameStart, frameAllocationStart, stepNanos;
+    private int frameSteps, frameMissedTicks;
+
+    //the window in progress
+    private int windowFrames;
+    private long windowRenderNanos, windowRenderMax, windowStepNanos, windowSteps, windowAllocated;
+
+    //published at the end of each window
+    private volatile double renderMillis, renderMillisMax, stepMicros, allocatedBytes;
+    private volatile int segments, waveSamples, oscillators;
+    private volatile long frames, missedTicks, droppedSteps, shapeBuilds;
+    private volatile double shapeBuildMillis;
+    private volatile String[] summary = new String[0];
+
+    public FrameStats() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        boolean measurable = threads instanceof com.sun.management.ThreadMXBean
+                             && ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported();
+        allocation = measurable ? (com.sun.management.ThreadMXBean) threads : null;
+        if (measurable) allocation.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    /**
+     *  Records a timer tick that ran the given number of simulation steps in the given time. A tick that had to
+     *  run more than one step came late, and steps the clock gave up on count as dropped.
+     */
+    public void recordSteps(int steps, int dropped, long nanos) {
+        frameSteps += steps;
+        if (steps > 1) frameMissedTicks += steps - 1;
+        stepNanos += nanos;
+        missedTicks += (steps > 1 ? steps - 1 : 0) + dropped;
+        droppedSteps += dropped;
+    }
+
+    /**
+     *  Records how long it took to build a shape (or rotate one) from a toolbar action.
+     */
+    public void recordShapeBuild(String kind, long nanos) {
+        shapeBuilds++;
+        shapeBuildMillis = nanos/1e6;
+
+        ShapeBuildEvent event = new ShapeBuildEvent();
+        if (event.shouldCommit()) {
+            event.kind = kind;
+            event.buildTime = nanos;
+            event.commit();
+        }
+    }
+
+    public void beginFrame() {
+        frameStart = System.nanoTime();
+        frameAllocationStart = allocatedBytes();
+    }
+
+    /**
+     *  Ends the frame started by beginFrame(), with the sizes of what was drawn.
+     */
+    public void endFrame(int segments, int waveSamples, int oscillators) {
+        long render = System.nanoTime() - frameStart;
+        long allocated = allocatedBytes() - frameAllocationStart;
+
+        FrameEvent event = new FrameEvent();
+        if (event.shouldCommit()) {
+            event.renderTime = render;
+            event.stepTime = stepNanos;
+            event.steps = frameSteps;
+            event.missedTicks = frameMissedTicks;
+            event.segments = segments;
+            event.waveSamples = waveSamples;
+            event.allocated = allocated;
+            event.commit();
+        }
+
+        windowFrames++;
+        windowRenderNanos += render;
+        windowRenderMax = Math.max(windowRenderMax, render);
+        windowStepNanos += stepNanos;
+        windowSteps += frameSteps;
+        windowAllocated += allocated;
+        stepNanos = 0;
+        frameSteps = 0;
+        frameMissedTicks = 0;
+        frames++;
+
+        if (windowFrames == WINDOW_FRAMES) {
+            renderMillis = windowRenderNanos/1e6/windowFrames;
+            renderMillisMax = windowRenderMax/1e6;
+            stepMicros = windowSteps == 0 ? 0 : windowStepNanos/1e3/windowSteps;
+            allocatedBytes = (double) windowAllocated/windowFrames;
+            this.segments = segments;
+            this.waveSamples = waveSamples;
+            this.oscillators = oscillators;
+            summary = null;
+            windowFrames = 0;
+            windowRenderNanos = 0;
+            windowRenderMax = 0;
+            windowStepNanos = 0;
+            windowSteps = 0;
+            windowAllocated = 0;
+        }
+    }
+
+    /**
+     *  Returns the HUD's lines of text for the last complete window. They're only formatted again when a new
+     *  window comes in.
+     */
+    public String[] getSummary() {
+        String[] lines = summary;
+        if (lines == null) {
+            lines = new String[] {
+                String.format(Locale.ROOT, "frame  %.2f ms avg, %.2f ms max", renderMillis, renderMillisMax),
+                String.format(Locale.ROOT, "step   %.1f us (ray and wave)", stepMicros),
+                String.format(Locale.ROOT, "alloc  %.0f bytes/frame", allocatedBytes),
+                String.format(Locale.ROOT, "shape  %d segments, %d oscillators", segments, oscillators),
+                String.format(Locale.ROOT, "wave   %d samples", waveSamples),
+                String.format(Locale.ROOT, "ticks  %d late or dropped", missedTicks),
+            };
+            summary = lines;
+        }
+        return lines;
+    }
+
+    private long allocatedBytes() {
+        return allocation == null ? 0 : allocation.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    @Override
+    public double getRenderMillis() {
+        return renderMillis;
+    }
+
+    @Override
+    public double getRenderMillisMax() {
+        return renderMillisMax;
+    }
+
+    @Override
+    public double getStepMicros() {
+        return stepMicros;
+    }
+
+    @Override
+    public double getAllocatedBytesPerFrame() {
+        return allocatedBytes;
+    }
+
+    @Override
+    public int getSegments() {
+        return segments;
+    }
+
+    @Override
+    public int getWaveSamples() {
+        return waveSamples;
+    }
+
+    @Override
+    public int getOscillators() {
+        return oscillators;
+    }
+
+    @Override
+    public long getFrames() {
+        return frames;
+    }
+
+    @Override
+    public long getMissedTicks() {
+        return missedTicks;
+    }
+
+    @Override
+    public long getDroppedSteps() {
+        return droppedSteps;
+    }
+
+    @Override
+    public long getShapeBuilds() {
+        return shapeBuilds;
+    }
+
+    @Override
+    public double getLastShapeBuildMillis() {
+        return shapeBuildMillis;
+    }
+
+    @Name("customizablesine.Frame")
+    @Label("Frame")
+    @Category("Customizable Sine")
+    static class FrameEvent extends Event {
+        @Label("Render Time")
+        @Timespan
+        long renderTime;
+
+        @Label("Step Time")
+        @Timespan
+        long stepTime;
+
+        @Label("Steps")
+        int steps;
+
+        @Label("Missed Ticks")
+        int missedTicks;
+
+        @Label("Segments")
+        int segments;
+
+        @Label("Wave Samples")
+        int waveSamples;
+
+        @Label("Allocated")
+        @DataAmount
+        long allocated;
+    }
+
+    @Name("customizablesine.ShapeBuild")
+    @Label("Shape Build")
+    @Category("Customizable Sine")
+    static class ShapeBuildEvent extends Event {
+        @Label("Kind")
+        String kind;
+
+        @Label("Build Time")
+        @Timespan
+        long buildTime;
+    }
+}
@@ -0,0 +1,37 @@
+package customizablesine;
+
+/**
+ *  The JMX view of FrameStats, registered as customizablesine:type=FrameStats. Averages are over the last complete
+ *  window of frames; the counts are totals since startup.
+ */
+public interface FrameStatsMBean {
+    double getRenderMillis();
+
+    double getRenderMillisMax();
+
+    /**
+     *  Average time per simulation step: moving the rays, the intersection search and adding to the wave.
+     */
+    double getStepMicros();
+
+    double getAllocatedBytesPerFrame();
+
+    int getSegments();
+
+    int getWaveSamples();
+
+    int getOscillators();
+
+    long getFrames();
+
+    /**
+     *  Timer ticks that came too late to run just one step, plus steps the clock dropped.
+     */
+    long getMissedTicks();
+
+    long getDroppedSteps();
+
+    long getShapeBuilds();
+
+    double getLastShapeBuildMillis();
+}
@@ -0,0 +1,89 @@
+package customizablesine;
+
+/**
+ *  One shape with its own spinning ray. The wave it makes is the height of the ray's intersection above the
+ *  center, which for a circle is a plain sine. Several of these stacked in an OscillatorBank add up to one
+ *  composite wave, the same way sines add up in a Fourier series.
+ *
+ *  Oscillators in a bank can be evaluated on different threads at the same time, so two of them shouldn't share a
+ *  shape (shapes cache things as they're queried). Use RadialShape.copy() to give each its own.
+ */
+public class Oscillator {
+    private RadialShape shape;
+    private double rotation, frequency, amplitude, angle;
+
+    /**
+     *  @param rotation   how far the shape is turned, in radians, applied as a phase offset like the slider
+     *  @param frequency  turns of the ray per second
+     *  @param amplitude  what the heights are multiplied by before they're added to the others
+     */
+    public Oscillator(RadialShape shape, double rotation, double frequency, double amplitude) {
+        this.shape = shape;
+        this.rotation = rotation;
+        this.frequency = frequency;
+        this.amplitude = amplitude;
+    }
+
+    /**
+     *  Returns a copy with its own copy of the shape, at the same angle as this one.
+     */
+    public Oscillator copy() {
+        Oscillator copy = new Oscillator(shape.copy(), rotation, frequency, amplitude);
+        copy.angle = angle;
+        return copy;
+    }
+
+    public RadialShape getShape() {
+        return shape;
+    }
+
+    public void setShape(RadialShape shape) {
+        this.shape = shape;
+    }
+
+    public double getRotation() {
+        return rotation;
+    }
+
+    public void setRotation(double rotation) {
+        this.rotation = rotation;
+    }
+
+    public double getFrequency() {
+        return frequency;
+    }
+
+    public void setFrequency(double frequency) {
+        this.frequency = frequency;
+    }
+
+    public double getAmplitude() {
+        return amplitude;
+    }
+
+    public void setAmplitude(double amplitude) {
+        this.amplitude = amplitude;
+    }
+
+    /**
+     *  Returns where the ray is pointing, in [0, 2*pi). This is the math angle, so it goes counterclockwise on
+     *  screen.
+     */
+    public double getAngle() {
+        return angle;
+    }
+
+    public void setAngle(double angle) {
+        this.angle = angle;
+    }
+
+    /**
+     *  Returns how far above (center, center) the ray at the given angle hits the shape, times the amplitude, or
+     *  NaN if it misses.
+     */
+    public double height(double center, double angle) {
+        //same lookup as DrawPanel has always done: negate for screen coordinates, and rotation is a phase offset
+        double radius = shape.radius(center, center, -angle - rotation);
+        return radius*Math.sin(angle)*amplitude;
+    }
+}
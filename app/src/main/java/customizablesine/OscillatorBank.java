@@ -0,0 +1,317 @@
+package customizablesine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ *  A stack of oscillators whose heights are summed into one composite wave. A single oscillator gives exactly the
+ *  wave it would on its own.
+ *
+ *  Samples are worked out a block at a time. With enough oscillators, the block is split up by oscillator over a
+ *  fork-join pool: each task sums its share of the oscillators into its own slice of a scratch array, and the
+ *  slices are added together as the tasks are joined. Small banks (the usual case of one shape) skip all of that
+ *  and are summed straight into the output on the calling thread.
+ *
+ *  The tasks and the scratch array are kept and reused, so advancing doesn't allocate anything either way. They're
+ *  only made again when oscillators are added or removed, or a block comes along that's bigger than any before.
+ *
+ *  advance() waits for the pool, which a UI thread shouldn't. For that, prepare() starts the next block in the
+ *  background and returns straight away, and advanceReady() picks it up later if it's done, never waiting. The
+ *  first few oscillators can be left out of the background part and summed on the calling thread when the block
+ *  is picked up, so their shapes are free to be changed there in the meantime.
+ */
+public class OscillatorBank {
+    //oscillator samples a task does itself before it's worth splitting it up further
+    private static final int TASK_WORK = 2048;
+
+    private final List<Oscillator> oscillators = new ArrayList<Oscillator>();
+    private final ForkJoinPool pool;
+    private Oscillator[] snapshot = new Oscillator[0];
+
+    //the task tree for splitting up a block (null until it's needed), what it was made for, and where its leaves
+    //put their sums
+    private SumTask tasks;
+    private int taskFrom, taskTo, taskCapacity, leaves;
+    private double[] scratch = new double[0];
+    //the block the tasks are working on, and where the rays were when it was started
+    private Oscillator[] blockOscillators;
+    private double[] blockAngles = new double[0];
+    private double blockCenter, blockStep;
+    private int blockCount;
+    //whether the tasks are (or were) working on a block from prepare() that hasn't been picked up, and whether the
+    //rays have moved since it was started
+    private boolean prepared, moved;
+
+    public OscillatorBank() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public OscillatorBank(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public void add(Oscillator oscillator) {
+        oscillators.add(oscillator);
+        snapshot = oscillators.toArray(new Oscillator[0]);
+    }
+
+    public void remove(Oscillator oscillator) {
+        oscillators.remove(oscillator);
+        snapshot = oscillators.toArray(new Oscillator[0]);
+    }
+
+    public Oscillator get(int i) {
+        return snapshot[i];
+    }
+
+    public int size() {
+        return snapshot.length;
+    }
+
+    /**
+     *  Returns true if no oscillator has anything for its ray to hit.
+     */
+    public boolean isEmpty() {
+        for (Oscillator oscillator : snapshot) {
+            if (!oscillator.getShape().isEmpty()) return false;
+        }
+        return true;
+    }
+
+    /**
+     *  Moves every ray forward by the given number of steps and writes the summed height after each step into out.
+     *  Oscillators that miss are left out of a sample, and a sample where all of them miss is NaN.
+     *
+     *  @param center  the rays start at (center, center)
+     */
+    public void advance(double center, double stepSeconds, double[] out, int offset, int count) {
+        awaitPrepared();
+        prepared = false;
+        Oscillator[] oscillators = snapshot;
+        if (count <= 0) return;
+
+        if (!worthSplitting(oscillators.length, count)) {
+            sumHere(oscillators, center, stepSeconds, out, offset, count);
+        }
+        else {
+            start(0, center, stepSeconds, count);
+            pool.invoke(tasks);
+            System.arraycopy(scratch, tasks.offset, out, offset, count);
+        }
+
+        skip(stepSeconds, count);
+    }
+
+    /**
+     *  Starts working out the next count steps of oscillators [foreground, size()) on the pool, and returns without
+     *  waiting for them; advanceReady() picks the block up once it's done. Does nothing if a block is already being
+     *  worked out, or if there's too little to be worth splitting up, which advanceReady() just does itself.
+     *
+     *  Until the block is done, those oscillators and their shapes must be left alone. Oscillators can still be
+     *  added or removed and the rays moved with skip(), but that throws the block away.
+     */
+    public void prepare(int foreground, double center, double stepSeconds, int count) {
+        if (count <= 0 || isBusy() || !worthSplitting(snapshot.length - foreground, count)) return;
+
+        start(foreground, center, stepSeconds, count);
+        prepared = true;
+        moved = false;
+        pool.execute(tasks);
+    }
+
+    /**
+     *  Returns true while a block started by prepare() is still being worked out.
+     */
+    public boolean isBusy() {
+        return prepared && !tasks.isDone();
+    }
+
+    /**
+     *  Like advance(), but never waits for the pool. If the block from prepare() is done and was started with the
+     *  same oscillators, center and step, up to count steps of it are used, and the oscillators it left out are
+     *  summed on this thread. If there's too little to be worth splitting up, all count steps are summed on this
+     *  thread. Otherwise nothing happens, and the caller should prepare() a block and try again later.
+     *
+     *  @return  how many steps the rays were moved and written to out
+     */
+    public int advanceReady(int foreground, double center, double stepSeconds, double[] out, int offset, int count) {
+        if (count <= 0 || isBusy()) return 0;
+        Oscillator[] oscillators = snapshot;
+
+        if (prepared) {
+            prepared = false;
+            if (!moved && blockOscillators == oscillators && taskFrom == foreground
+                && blockCenter == center && blockStep == stepSeconds) {
+                int ready = Math.min(count, blockCount);
+                Arrays.fill(out, offset, offset + ready, Double.NaN);
+                //nothing has moved the rays since the block was started, so its angles are still where they are
+                sum(oscillators, blockAngles, 0, foreground, center, stepSeconds, out, offset, ready);
+                for (int i = 0; i < ready; i++) {
+                    out[offset+i] = add(out[offset+i], scratch[tasks.offset+i]);
+                }
+                skip(stepSeconds, ready);
+                return ready;
+            }
+        }
+
+        if (worthSplitting(oscillators.length - foreground, count)) return 0;
+        sumHere(oscillators, center, stepSeconds, out, offset, count);
+        skip(stepSeconds, count);
+        return count;
+    }
+
+    /**
+     *  Waits for the block started by prepare() to be done, if it's still being worked out.
+     */
+    public void awaitPrepared() {
+        if (prepared) tasks.join();
+    }
+
+    /**
+     *  Returns the summed height the given number of steps from now, which can be a fraction or negative, without
+     *  moving any of the rays. NaN if every oscillator misses.
+     */
+    public double heightAt(double center, double stepSeconds, double steps) {
+        awaitPrepared();
+        double sum = Double.NaN;
+        for (Oscillator oscillator : snapshot) {
+            sum = add(sum, oscillator.height(center, angleAt(oscillator, stepSeconds, steps)));
+        }
+        return sum;
+    }
+
+    /**
+     *  Moves every ray forward without working out any samples.
+     */
+    public void skip(double stepSeconds, int count) {
+        moved = true;
+        for (Oscillator oscillator : snapshot) {
+            oscillator.setAngle(angleAt(oscillator, stepSeconds, count));
+        }
+    }
+
+    private static boolean worthSplitting(int oscillators, int count) {
+        return oscillators >= 2 && (long) oscillators*count > TASK_WORK;
+    }
+
+    /**
+     *  Gets the tasks ready to sum oscillators [from, size()) over the next count steps, from where the rays are now.
+     */
+    private void start(int from, double center, double stepSeconds, int count) {
+        Oscillator[] oscillators = snapshot;
+        if (tasks == null || taskFrom != from || taskTo != oscillators.length || taskCapacity < count) {
+            taskFrom = from;
+            taskTo = oscillators.length;
+            taskCapacity = count;
+            leaves = 0;
+            tasks = new SumTask(from, oscillators.length);
+            if (scratch.length < leaves*count) scratch = new double[leaves*count];
+        }
+        saveAngles(oscillators);
+        blockOscillators = oscillators;
+        blockCenter = center;
+        blockStep = stepSeconds;
+        blockCount = count;
+
+        //a finished task has to be reset before it can run again
+        tasks.reinitialize();
+    }
+
+    //sums everything into out on this thread
+    private void sumHere(Oscillator[] oscillators, double center, double stepSeconds, double[] out, int offset,
+                         int count) {
+        saveAngles(oscillators);
+        Arrays.fill(out, offset, offset + count, Double.NaN);
+        sum(oscillators, blockAngles, 0, oscillators.length, center, stepSeconds, out, offset, count);
+    }
+
+    private void saveAngles(Oscillator[] oscillators) {
+        if (blockAngles.length < oscillators.length) blockAngles = new double[oscillators.length];
+        for (int o = 0; o < oscillators.length; o++) {
+            blockAngles[o] = oscillators[o].getAngle();
+        }
+    }
+
+    /**
+     *  Adds up oscillators [from, to) into out, with their rays starting from the given angles rather than the
+     *  oscillators' own, which can be moved on meanwhile.
+     */
+    private static void sum(Oscillator[] oscillators, double[] angles, int from, int to, double center,
+                            double stepSeconds, double[] out, int offset, int count) {
+        for (int o = from; o < to; o++) {
+            Oscillator oscillator = oscillators[o];
+            for (int i = 0; i < count; i++) {
+                double angle = angleAt(angles[o], oscillator.getFrequency(), stepSeconds, i+1);
+                out[offset+i] = add(out[offset+i], oscillator.height(center, angle));
+            }
+        }
+    }
+
+    private static double angleAt(Oscillator oscillator, double stepSeconds, double steps) {
+        return angleAt(oscillator.getAngle(), oscillator.getFrequency(), stepSeconds, steps);
+    }
+
+    /**
+     *  Where a ray will be after the given number of steps. Worked out from the starting angle instead of added up
+     *  step by step, so every sample in a block is independent of the others.
+     */
+    private static double angleAt(double start, double frequency, double stepSeconds, double steps) {
+        double angle = start + 2*Math.PI*frequency*stepSeconds*steps;
+        if (angle >= 2*Math.PI || angle < 0) angle -= 2*Math.PI*Math.floor(angle/(2*Math.PI));   //restrict to [0, 2*pi)
+        return angle;
+    }
+
+    //NaN means nothing has hit yet, so it only sticks around if both sides are NaN
+    private static double add(double a, double b) {
+        if (a != a) return b;
+        if (b != b) return a;
+        return a + b;
+    }
+
+    /**
+     *  Sums oscillators [from, to) of the current block into the scratch array, starting at offset. The tree is
+     *  split up the same way every time, so each leaf gets its own slice of the scratch array once and keeps it.
+     */
+    private class SumTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from, to, offset;
+        private final SumTask left, right;
+
+        SumTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+            if (to - from == 1 || (long) (to - from)*taskCapacity <= TASK_WORK) {
+                left = right = null;
+                offset = taskCapacity*leaves++;
+            }
+            else {
+                int middle = (from + to) >>> 1;
+                left = new SumTask(from, middle);
+                right = new SumTask(middle, to);
+                //the left half's sum ends up where its first leaf is, and so does this one's
+                offset = left.offset;
+            }
+        }
+
+        @Override
+        protected void compute() {
+            if (left == null) {
+                Arrays.fill(scratch, offset, offset + blockCount, Double.NaN);
+                sum(blockOscillators, blockAngles, from, to, blockCenter, blockStep, scratch, offset, blockCount);
+                return;
+            }
+
+            left.reinitialize();
+            left.fork();
+            right.compute();
+            left.join();
+            for (int i = 0; i < blockCount; i++) {
+                scratch[offset+i] = add(scratch[offset+i], scratch[right.offset+i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package customizablesine;
+
+import java.awt.Graphics2D;
+
+/**
+ *  An exact convex polygon.
+ *
+ *  Regular polygons seen from their own center use the polar form r = apothem / cos(offset from the nearest
+ *  edge's midpoint), which is a handful of flops. Anything else (the triangle preset, or a polygon that's been
+ *  dragged away from the center) clips the ray against each edge's half-plane instead.
+ */
+public class PolygonShape implements RadialShape {
+    private final double[] xs, ys;
+    private final double[] normalX, normalY, offset;
+
+    //only meaningful for regular polygons
+    private final boolean regular;
+    private double centerX, centerY, phase, apothem, step;
+
+    /**
+     *  Makes a convex polygon out of its vertices, given in order (either direction works).
+     */
+    public PolygonShape(double[] xs, double[] ys) {
+        this(xs, ys, false);
+    }
+
+    private PolygonShape(double[] xs, double[] ys, boolean regular) {
+        this.xs = xs;
+        this.ys = ys;
+        this.regular = regular;
+        normalX = new double[xs.length];
+        normalY = new double[xs.length];
+        offset = new double[xs.length];
+        updateEdges();
+    }
+
+    /**
+     *  Makes a regular polygon centered on (x, y) with the given distance to each vertex, with the first vertex at
+     *  the given angle.
+     */
+    public static PolygonShape regular(double x, double y, double circumradius, int sides, double phase) {
+        double[] xs = new double[sides], ys = new double[sides];
+        for (int i = 0; i < sides; i++) {
+            xs[i] = x + circumradius*Math.cos(phase + 2*Math.PI*i/sides);
+            ys[i] = y + circumradius*Math.sin(phase + 2*Math.PI*i/sides);
+        }
+
+        PolygonShape polygon = new PolygonShape(xs, ys, true);
+        polygon.centerX = x;
+        polygon.centerY = y;
+        polygon.phase = phase;
+        polygon.step = 2*Math.PI/sides;
+        polygon.apothem = circumradius*Math.cos(Math.PI/sides);
+        return polygon;
+    }
+
+    @Override
+    public double radius(double cx, double cy, double angle) {
+        //close enough to the center that the difference can only be rounding from a transform
+        if (regular && Math.abs(cx - centerX) < 1e-9 && Math.abs(cy - centerY) < 1e-9) {
+            double offsetFromVertex = (angle - phase) % step;
+            if (offsetFromVertex < 0) offsetFromVertex += step;
+            return apothem / Math.cos(offsetFromVertex - step/2);
+        }
+
+        //clip the ray against every edge: inside means normal . p <= offset
+        double dx = Math.cos(angle), dy = Math.sin(angle);
+        double enter = Double.NEGATIVE_INFINITY, exit = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < xs.length; i++) {
+            double distance = offset[i] - (normalX[i]*cx + normalY[i]*cy);
+            double speed = normalX[i]*dx + normalY[i]*dy;
+            if (speed == 0) {
+                if (distance < 0) return Double.NaN;   //running parallel outside this edge
+            }
+            else if (speed > 0) {
+                exit = Math.min(exit, distance / speed);
+            }
+            else {
+                enter = Math.max(enter, distance / speed);
+            }
+        }
+
+        if (enter > exit) return Double.NaN;
+        if (enter >= 0) return enter;   //starting outside, hit the near side
+        if (exit >= 0) return exit;     //starting inside
+        return Double.NaN;
+    }
+
+    @Override
+    public void translate(double dx, double dy) {
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] += dx;
+            ys[i] += dy;
+        }
+        centerX += dx;
+        centerY += dy;
+        updateEdges();
+    }
+
+    @Override
+    public void rotate(double angle, double cx, double cy) {
+        double cos = Math.cos(angle), sin = Math.sin(angle);
+        for (int i = 0; i < xs.length; i++) {
+            double x = (xs[i]-cx)*cos - (ys[i]-cy)*sin + cx;
+            double y = (xs[i]-cx)*sin + (ys[i]-cy)*cos + cy;
+            xs[i] = x;
+            ys[i] = y;
+        }
+
+        double x = (centerX-cx)*cos - (centerY-cy)*sin + cx;
+        double y = (centerX-cx)*sin + (centerY-cy)*cos + cy;
+        centerX = x;
+        centerY = y;
+        phase += angle;
+        updateEdges();
+    }
+
+    @Override
+    public void draw(Graphics2D g) {
+        for (int i = 0, j = xs.length - 1; i < xs.length; j = i++) {
+            g.drawLine((int) xs[j], (int) ys[j], (int) xs[i], (int) ys[i]);
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return false;
+    }
+
+    @Override
+    public RadialShape copy() {
+        PolygonShape copy = new PolygonShape(xs.clone(), ys.clone(), regular);
+        copy.centerX = centerX;
+        copy.centerY = centerY;
+        copy.phase = phase;
+        copy.apothem = apothem;
+        copy.step = step;
+        return copy;
+    }
+
+    private void updateEdges() {
+        //winding direction decides which side of each edge is the outside
+        double area = 0;
+        for (int i = 0, j = xs.length - 1; i < xs.length; j = i++) {
+            area += xs[j]*ys[i] - xs[i]*ys[j];
+        }
+        double sign = area >= 0 ? 1 : -1;
+
+        for (int i = 0, j = xs.length - 1; i < xs.length; j = i++) {
+            double nx = sign*(ys[i] - ys[j]);
+            double ny = sign*(xs[j] - xs[i]);
+            double length = Math.sqrt(nx*nx + ny*ny);
+            normalX[i] = nx / length;
+            normalY[i] = ny / length;
+            offset[i] = normalX[i]*xs[i] + normalY[i]*ys[i];
+        }
+    }
+}
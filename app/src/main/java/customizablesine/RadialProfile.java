@@ -0,0 +1,72 @@
+package customizablesine;
+
+import java.util.Arrays;
+
+/**
+ *  A cached table of how far the drawing is from the center in every direction, i.e. r(theta) sampled at a
+ *  fixed number of evenly spaced screen angles.
+ *
+ *  The table only has to be rebuilt when the drawing itself changes. Every frame after that just interpolates
+ *  between two entries, no matter how many segments the drawing has, and rotating the drawing is nothing more
+ *  than an offset to the angle being looked up.
+ *
+ *  Directions in which the ray doesn't hit anything are stored as NaN.
+ */
+public class RadialProfile {
+    private static final double TWO_PI = 2*Math.PI;
+
+    private final double[] radii;
+
+    public RadialProfile(int size) {
+        radii = new double[size];
+        Arrays.fill(radii, Double.NaN);
+    }
+
+    public int size() {
+        return radii.length;
+    }
+
+    /**
+     *  Returns the raw table entry for the i-th angle, which is 2*pi*i/size().
+     */
+    public double radiusAt(int i) {
+        return radii[i];
+    }
+
+    /**
+     *  Refills the table by casting a ray from (cx, cy) at every table angle through a grid already built for the
+     *  given lines.
+     */
+    public void build(Segments lines, SegmentGrid grid, double cx, double cy) {
+        for (int i = 0; i < radii.length; i++) {
+            radii[i] = grid.castRay(lines, cx, cy, TWO_PI*i/radii.length, Double.POSITIVE_INFINITY);
+        }
+    }
+
+    /**
+     *  Refills the table from any shape, as seen from (cx, cy).
+     */
+    public void build(RadialShape shape, double cx, double cy) {
+        for (int i = 0; i < radii.length; i++) {
+            radii[i] = shape.radius(cx, cy, TWO_PI*i/radii.length);
+        }
+    }
+
+    /**
+     *  Looks up the distance to the drawing at any screen angle, linearly interpolating between the two nearest
+     *  table entries. If one of them is a miss, the nearer one is used as-is so we don't smear across gaps.
+     */
+    public double sample(double angle) {
+        double pos = angle / TWO_PI * radii.length;
+        pos -= Math.floor(pos / radii.length) * radii.length;
+
+        int i = (int) pos;
+        if (i >= radii.length) i = 0;
+        double frac = pos - i;
+        double r0 = radii[i];
+        double r1 = radii[i+1 == radii.length ? 0 : i+1];
+
+        if (r0 != r0 || r1 != r1) return frac < 0.5 ? r0 : r1;
+        return r0 + (r1 - r0)*frac;
+    }
+}
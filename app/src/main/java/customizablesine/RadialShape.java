@@ -0,0 +1,32 @@
+package customizablesine;
+
+import java.awt.Graphics2D;
+
+/**
+ *  Something the rotating ray can hit. All angles are screen angles (y pointing down), and the distance is
+ *  measured from whatever point the ray starts at, which is normally the center of the drawing region.
+ */
+public interface RadialShape {
+
+    /**
+     *  Returns the distance from (cx, cy) to the nearest point of the shape along the ray at the given angle, or
+     *  NaN if the ray doesn't hit it.
+     */
+    double radius(double cx, double cy, double angle);
+
+    void translate(double dx, double dy);
+
+    /**
+     *  Turns the shape by the given angle around (cx, cy).
+     */
+    void rotate(double angle, double cx, double cy);
+
+    void draw(Graphics2D g);
+
+    boolean isEmpty();
+
+    /**
+     *  Returns an independent copy, so moving or editing one doesn't affect the other.
+     */
+    RadialShape copy();
+}
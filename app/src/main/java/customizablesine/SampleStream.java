@@ -0,0 +1,269 @@
+package customizablesine;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ *  Streams the live wave to other programs over UDP, so scopes, synths and loggers on the same machine can follow
+ *  it without reading it off the screen.
+ *
+ *  Like AudioEngine, a dedicated thread runs its own ray around (a copy of) the shape at the requested sample rate,
+ *  and sends the samples in batches at the pace they're due. For every sample it works out the ray's angle, how
+ *  far out it hits the shape, where that is in the drawing region, and the wave's value, the same way DrawPanel
+ *  does for the ray on screen. Misses come out as NaN.
+ *
+ *  Each batch is one datagram, in one of two encodings (all numbers big endian):
+ *
+ *  <pre>
+ *  raw:  int sequence, int sample count, long index of the first sample,
+ *        then float angle, radius, x, y, value for each sample
+ *  osc:  an OSC bundle with an immediate time tag, holding one "/sine/sample ,ifffff" message per sample:
+ *        the sample index (low 32 bits), then angle, radius, x, y, value
+ *  </pre>
+ *
+ *  The datagram is put together in a direct buffer allocated up front, and sent through a non-blocking channel, so
+ *  the stream thread never allocates or waits on the network. A batch the socket has no room for is dropped and
+ *  counted. The UI thread only ever swaps in new parameters.
+ */
+public class SampleStream implements Runnable {
+    public static final int MAX_DATAGRAM_BYTES = 65507;
+
+    private static final int RAW_HEADER_BYTES = 16;
+    private static final int RAW_SAMPLE_BYTES = 20;
+    private static final String OSC_ADDRESS = "/sine/sample";
+    private static final String OSC_TYPES = ",ifffff";
+
+    //if the thread falls further behind than this (the machine was suspended, say), it skips ahead instead of
+    //sending everything it missed in one burst
+    private static final long MAX_LAG_NANOS = 1000000000L;
+
+    private static final class Placement {
+        final RadialShape shape;
+        final double center, rotation;
+
+        Placement(RadialShape shape, double center, double rotation) {
+            this.shape = shape;
+            this.center = center;
+            this.rotation = rotation;
+        }
+    }
+
+    private final InetSocketAddress target;
+    private final double sampleRate;
+    private final int batchSize;
+    private final boolean osc;
+    private final Runnable failed;
+    private final ByteBuffer packet;
+    private final ByteBuffer oscPrefix;
+
+    private volatile Placement placement = new Placement(null, 0, 0);
+    private volatile double frequency = 1, amplitude = 1;
+    private volatile boolean running;
+    private volatile String error;
+    private volatile long sentBatches, droppedBatches;
+    private Thread thread;
+
+    /**
+     *  @param sampleRate  samples per second
+     *  @param batchSize   samples per datagram; more means fewer packets but more latency
+     *  @param osc         encode batches as OSC bundles instead of the raw format
+     *  @param failed      run on the stream thread if it had to stop because the socket couldn't be opened;
+     *                     isRunning() is false by then and getError() says what went wrong
+     */
+    public SampleStream(InetSocketAddress target, double sampleRate, int batchSize, boolean osc, Runnable failed) {
+        if (!(sampleRate > 0)) throw new IllegalArgumentException("a sample rate of " + sampleRate + " per second");
+        this.target = target;
+        this.sampleRate = sampleRate;
+        this.batchSize = batchSize;
+        this.osc = osc;
+        this.failed = failed;
+
+        oscPrefix = ByteBuffer.allocateDirect(oscString(OSC_ADDRESS).length + oscString(OSC_TYPES).length);
+        oscPrefix.put(oscString(OSC_ADDRESS)).put(oscString(OSC_TYPES)).flip();
+
+        int sampleBytes = osc ? 4 + oscPrefix.remaining() + 24 : RAW_SAMPLE_BYTES;
+        long bytes = 16 + (long) sampleBytes*batchSize;      //the raw header and the bundle header are both 16 bytes
+        if (batchSize < 1 || bytes > MAX_DATAGRAM_BYTES) {
+            throw new IllegalArgumentException("a batch of " + batchSize + " samples doesn't fit in a datagram");
+        }
+        packet = ByteBuffer.allocateDirect((int) bytes);
+    }
+
+    /**
+     *  Sets the shape the stream's ray goes around, seen from (center, center) and turned by the given rotation.
+     *  The stream thread queries the shape while it runs, so it must not be changed afterwards; pass a copy.
+     */
+    public void setShape(RadialShape shape, double center, double rotation) {
+        placement = new Placement(shape, center, rotation);
+    }
+
+    /**
+     *  @param frequency  turns of the ray per second
+     */
+    public void setFrequency(double frequency) {
+        this.frequency = frequency;
+    }
+
+    public void setAmplitude(double amplitude) {
+        this.amplitude = amplitude;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     *  Returns why the stream stopped on its own, or null if it didn't.
+     */
+    public String getError() {
+        return error;
+    }
+
+    public long getSentBatches() {
+        return sentBatches;
+    }
+
+    /**
+     *  Returns how many batches were thrown away because the socket's buffer was full.
+     */
+    public long getDroppedBatches() {
+        return droppedBatches;
+    }
+
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        error = null;
+        thread = new Thread(this, "stream");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     *  Stops after the batch in progress and closes the socket.
+     */
+    public synchronized void stop() {
+        if (!running) return;
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+    }
+
+    @Override
+    public void run() {
+        DatagramChannel channel;
+        try {
+            channel = DatagramChannel.open();
+            channel.configureBlocking(false);
+        }
+        catch (IOException e) {
+            error = "couldn't open stream socket: " + e.getMessage();
+            System.err.println(error);
+            running = false;
+            failed.run();
+            return;
+        }
+
+        long period = Math.round(batchSize*1e9/sampleRate);
+        long next = System.nanoTime();
+        long index = 0;
+        int sequence = 0;
+        double angle = 0;
+        boolean reported = false;
+
+        try {
+            while (running) {
+                long wait = next - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                    continue;
+                }
+                if (-wait > MAX_LAG_NANOS) next = System.nanoTime();
+                next += period;
+
+                angle = fill(sequence++, index, angle);
+                index += batchSize;
+
+                packet.flip();
+                try {
+                    if (channel.send(packet, target) == 0) droppedBatches++;
+                    else sentBatches++;
+                }
+                catch (IOException e) {
+                    //nobody to send to yet, or the network's down; say so once and keep going
+                    if (!reported) System.err.println("stream to " + target + " failed: " + e.getMessage());
+                    reported = true;
+                    droppedBatches++;
+                }
+            }
+        }
+        finally {
+            try {
+                channel.close();
+            }
+            catch (IOException e) {
+                //nothing left to do with it anyway
+            }
+        }
+    }
+
+    /**
+     *  Writes one batch into the packet buffer, starting with the ray at the given angle, and returns the angle it
+     *  ends at.
+     */
+    private double fill(int sequence, long index, double start) {
+        Placement placement = this.placement;
+        double step = 2*Math.PI*frequency/sampleRate, amplitude = this.amplitude;
+        double center = placement.center;
+
+        packet.clear();
+        if (osc) {
+            packet.put((byte) '#').put((byte) 'b').put((byte) 'u').put((byte) 'n')
+                  .put((byte) 'd').put((byte) 'l').put((byte) 'e').put((byte) 0);
+            packet.putLong(1);      //OSC for "immediately"
+        }
+        else {
+            packet.putInt(sequence).putInt(batchSize).putLong(index);
+        }
+
+        for (int i = 0; i < batchSize; i++) {
+            //worked out from the batch's start rather than added up, so rounding doesn't build up within it
+            double angle = start + step*i;
+            angle -= 2*Math.PI*Math.floor(angle/(2*Math.PI));
+            double radius = placement.shape == null ? Double.NaN
+                            : placement.shape.radius(center, center, -angle - placement.rotation);
+            double x = center + radius*Math.cos(-angle), y = center + radius*Math.sin(-angle);
+            double value = radius*Math.sin(angle)*amplitude/center;
+
+            if (osc) {
+                packet.putInt(oscPrefix.remaining() + 24);
+                packet.put(oscPrefix);
+                oscPrefix.rewind();
+                packet.putInt((int) (index + i));
+            }
+            packet.putFloat((float) angle).putFloat((float) radius)
+                  .putFloat((float) x).putFloat((float) y).putFloat((float) value);
+        }
+
+        double end = start + step*batchSize;
+        return end - 2*Math.PI*Math.floor(end/(2*Math.PI));
+    }
+
+    //OSC strings are null terminated and padded with more nulls to a multiple of 4 bytes
+    private static byte[] oscString(String s) {
+        byte[] chars = s.getBytes(StandardCharsets.US_ASCII);
+        byte[] padded = new byte[(chars.length/4 + 1)*4];
+        System.arraycopy(chars, 0, padded, 0, chars.length);
+        return padded;
+    }
+}
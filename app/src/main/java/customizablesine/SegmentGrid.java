@@ -0,0 +1,191 @@
+package customizablesine;
+
+import java.util.Arrays;
+
+/**
+ *  Bins the segments of a drawing into a uniform grid of square cells over their bounding box.
+ *
+ *  Nothing about the grid depends on where rays come from, so it only has to be rebuilt when the segments change.
+ *  Moving the ray's origin around (which is what dragging a TransformedShape does, seen from the shape's side)
+ *  costs nothing; a ray just walks the cells it passes through, nearest first, and stops at the first cell that
+ *  contains a hit.
+ *
+ *  Each segment goes in every cell it comes within a hair of, so a ray crossing exactly on a cell edge or corner
+ *  still finds it. Cells are stored back to back in one int array, so a lookup doesn't allocate anything.
+ */
+public class SegmentGrid {
+    private static final int MAX_CELLS = 1 << 20;
+    //how close (in cells) a segment has to come to a cell to be put in it
+    private static final double SLACK = 1e-6;
+
+    private Segments indexedLines;
+    private boolean dirty = true;
+
+    private double minX, minY, cellSize;
+    private int columns, rows;
+    private int[] cellStart = new int[0];
+    private int[] entries = new int[0];
+
+    /**
+     *  Marks the grid as out of date. Call this whenever the segments it was built from change.
+     */
+    public void invalidate() {
+        dirty = true;
+    }
+
+    public boolean needsRebuild(Segments lines) {
+        return dirty || lines != indexedLines;
+    }
+
+    public void build(Segments lines) {
+        indexedLines = lines;
+        dirty = false;
+
+        int n = lines.size();
+        double maxX, maxY;
+        minX = minY = Double.POSITIVE_INFINITY;
+        maxX = maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            minX = Math.min(minX, Math.min(lines.x1(i), lines.x2(i)));
+            minY = Math.min(minY, Math.min(lines.y1(i), lines.y2(i)));
+            maxX = Math.max(maxX, Math.max(lines.x1(i), lines.x2(i)));
+            maxY = Math.max(maxY, Math.max(lines.y1(i), lines.y2(i)));
+        }
+        if (n == 0) {
+            minX = minY = maxX = maxY = 0;
+        }
+
+        //about one cell per segment (up to a few times that for long thin drawings, since the cells are square)
+        double width = Math.max(maxX - minX, 1e-9), height = Math.max(maxY - minY, 1e-9);
+        int cells = Math.max(1, Math.min(MAX_CELLS, n));
+        cellSize = Math.max(Math.sqrt(width*height/cells), Math.max(width, height)/cells);
+        columns = (int) Math.floor(width/cellSize) + 1;
+        rows = (int) Math.floor(height/cellSize) + 1;
+
+        int cellCount = columns*rows;
+        if (cellStart.length < cellCount + 1) cellStart = new int[cellCount + 1];
+        else Arrays.fill(cellStart, 0, cellCount + 1, 0);
+
+        //first pass counts each cell's entries, the second fills them in
+        for (int i = 0; i < n; i++) {
+            rasterize(lines, i, false);
+        }
+        for (int c = 0; c < cellCount; c++) {
+            cellStart[c+1] += cellStart[c];
+        }
+        if (entries.length < cellStart[cellCount]) entries = new int[cellStart[cellCount]];
+        for (int i = 0; i < n; i++) {
+            rasterize(lines, i, true);
+        }
+        for (int c = cellCount; c > 0; c--) {
+            cellStart[c] = cellStart[c-1];
+        }
+        cellStart[0] = 0;
+    }
+
+    /**
+     *  Counts (or with fill, adds) the segment in every cell it comes near, one row of cells at a time.
+     */
+    private void rasterize(Segments lines, int i, boolean fill) {
+        double x1 = (lines.x1(i) - minX)/cellSize, y1 = (lines.y1(i) - minY)/cellSize;
+        double x2 = (lines.x2(i) - minX)/cellSize, y2 = (lines.y2(i) - minY)/cellSize;
+        if (y1 > y2) {
+            double t = x1; x1 = x2; x2 = t;
+            t = y1; y1 = y2; y2 = t;
+        }
+
+        int firstRow = clamp((int) Math.floor(y1 - SLACK), rows), lastRow = clamp((int) Math.floor(y2 + SLACK), rows);
+        for (int row = firstRow; row <= lastRow; row++) {
+            //the part of the segment inside this row (and a hair around it)
+            double low = Math.max(y1, row - SLACK), high = Math.min(y2, row + 1 + SLACK);
+            double xLow = x1, xHigh = x2;
+            if (y2 > y1) {
+                xLow = x1 + (x2 - x1)*(low - y1)/(y2 - y1);
+                xHigh = x1 + (x2 - x1)*(high - y1)/(y2 - y1);
+            }
+            int first = clamp((int) Math.floor(Math.min(xLow, xHigh) - SLACK), columns);
+            int last = clamp((int) Math.floor(Math.max(xLow, xHigh) + SLACK), columns);
+            for (int column = first; column <= last; column++) {
+                int cell = row*columns + column;
+                if (fill) entries[cellStart[cell]++] = i;
+                else cellStart[cell + 1]++;
+            }
+        }
+    }
+
+    /**
+     *  Finds the distance from (cx, cy) to the nearest segment along a ray at the given screen angle, or NaN if
+     *  nothing is hit within maxRadius. The grid must already be built for the given lines.
+     */
+    public double castRay(Segments lines, double cx, double cy, double angle, double maxRadius) {
+        double dx = Math.cos(angle), dy = Math.sin(angle);
+        //rays along an axis come out of cos and sin a hair off it, which could walk them out of the grid along
+        //its edge, so cells are walked as if they were exactly on it
+        double walkX = Math.abs(dx) < 1e-12 ? 0 : dx, walkY = Math.abs(dy) < 1e-12 ? 0 : dy;
+
+        //where the ray enters and leaves the grid, in distance along the ray
+        double ox = (cx - minX)/cellSize, oy = (cy - minY)/cellSize;
+        double enter = 0, exit = maxRadius/cellSize;
+        if (walkX != 0) {
+            double a = -ox/walkX, b = (columns - ox)/walkX;
+            enter = Math.max(enter, Math.min(a, b));
+            exit = Math.min(exit, Math.max(a, b));
+        }
+        else if (ox < -SLACK || ox > columns + SLACK) return Double.NaN;
+        if (walkY != 0) {
+            double a = -oy/walkY, b = (rows - oy)/walkY;
+            enter = Math.max(enter, Math.min(a, b));
+            exit = Math.min(exit, Math.max(a, b));
+        }
+        else if (oy < -SLACK || oy > rows + SLACK) return Double.NaN;
+        if (enter > exit) return Double.NaN;
+
+        //walk the cells along the ray (Amanatides and Woo), in cell units
+        int column = clamp((int) Math.floor(ox + walkX*enter), columns), row = clamp((int) Math.floor(oy + walkY*enter), rows);
+        int stepColumn = walkX > 0 ? 1 : -1, stepRow = walkY > 0 ? 1 : -1;
+        double nextX = walkX == 0 ? Double.POSITIVE_INFINITY : ((walkX > 0 ? column + 1 : column) - ox)/walkX;
+        double nextY = walkY == 0 ? Double.POSITIVE_INFINITY : ((walkY > 0 ? row + 1 : row) - oy)/walkY;
+        double deltaX = walkX == 0 ? Double.POSITIVE_INFINITY : 1/Math.abs(walkX);
+        double deltaY = walkY == 0 ? Double.POSITIVE_INFINITY : 1/Math.abs(walkY);
+
+        double nearest = Double.NaN;
+        while (true) {
+            int cell = row*columns + column;
+            for (int k = cellStart[cell]; k < cellStart[cell+1]; k++) {
+                double t = intersect(lines, entries[k], cx, cy, dx, dy, maxRadius);
+                if (t == t && !(t >= nearest)) nearest = t;
+            }
+
+            //anything in a later cell is further along the ray than where this one ends
+            double cellExit = Math.min(nextX, nextY);
+            if (nearest*(1 - 1e-12) <= cellExit*cellSize || cellExit > exit) return nearest;
+
+            if (nextX < nextY) {
+                column += stepColumn;
+                nextX += deltaX;
+                if (column < 0 || column >= columns) return nearest;
+            }
+            else {
+                row += stepRow;
+                nextY += deltaY;
+                if (row < 0 || row >= rows) return nearest;
+            }
+        }
+    }
+
+    private static double intersect(Segments lines, int i, double cx, double cy, double dx, double dy, double maxRadius) {
+        //solve center + t*d = p1 + u*(p2-p1) for t (distance along the ray) and u (position along the segment)
+        double ex = lines.x2(i) - lines.x1(i), ey = lines.y2(i) - lines.y1(i);
+        double denom = dx*ey - dy*ex;
+        if (denom == 0) return Double.NaN;     //parallel to the ray
+
+        double wx = lines.x1(i) - cx, wy = lines.y1(i) - cy;
+        double t = (wx*ey - wy*ex) / denom;
+        double u = (wx*dy - wy*dx) / denom;
+        return t >= 0 && t <= maxRadius && u >= 0 && u <= 1 ? t : Double.NaN;
+    }
+
+    private static int clamp(int i, int count) {
+        return i < 0 ? 0 : i >= count ? count - 1 : i;
+    }
+}
@@ -0,0 +1,117 @@
+package customizablesine;
+
+import java.awt.Graphics;
+import java.util.Arrays;
+
+/**
+ *  An immutable list of line segments, for keeping old versions of a drawing around.
+ *
+ *  The coordinates are kept in fixed size chunks (x1, y1, x2, y2 for each segment, back to back, like a
+ *  SegmentBuffer), and a chunk is never changed once it's in a list. So adding segments to a list makes a new list
+ *  that shares every full chunk with the old one, and only copies the partly filled last chunk along with the new
+ *  segments. A stroke added to a big drawing costs the stroke, a chunk at most, and a pointer per chunk, and the
+ *  version before it stays as it was.
+ *
+ *  Shapes can be built straight from a list (see SegmentShape), so showing an old version again doesn't copy it
+ *  anywhere either.
+ */
+public final class SegmentList implements Segments {
+    public static final int CHUNK_SEGMENTS = 1024;
+    private static final int CHUNK_SHIFT = 10;
+    public static final SegmentList EMPTY = new SegmentList(new double[0][], 0);
+
+    private final double[][] chunks;
+    private final int size;
+
+    private SegmentList(double[][] chunks, int size) {
+        this.chunks = chunks;
+        this.size = size;
+    }
+
+    /**
+     *  Returns a list of everything in the buffer as it is now.
+     */
+    public static SegmentList of(SegmentBuffer segments) {
+        return EMPTY.append(segments, 0);
+    }
+
+    /**
+     *  Returns this list followed by segments [from, size()) of the buffer, as they are now. Only the last chunk of
+     *  this list is copied; the others are shared.
+     */
+    public SegmentList append(SegmentBuffer segments, int from) {
+        int added = segments.size() - from;
+        if (added <= 0) return this;
+
+        int total = size + added;
+        int shared = size >> CHUNK_SHIFT;
+        double[][] grown = Arrays.copyOf(chunks, (total + CHUNK_SEGMENTS - 1) >> CHUNK_SHIFT);
+        for (int c = shared; c < grown.length; c++) {
+            int first = c << CHUNK_SHIFT;
+            int n = Math.min(CHUNK_SEGMENTS, total - first);
+            double[] chunk = new double[4*n];
+
+            //what was already in this chunk, then the new segments after it
+            int kept = Math.max(0, Math.min(n, size - first));
+            if (kept > 0) System.arraycopy(chunks[c], 0, chunk, 0, 4*kept);
+            segments.write(chunk, 4*kept, from + first + kept - size, n - kept);
+            grown[c] = chunk;
+        }
+        return new SegmentList(grown, total);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public double x1(int i) {
+        return chunks[i >> CHUNK_SHIFT][4*(i & (CHUNK_SEGMENTS - 1))];
+    }
+
+    @Override
+    public double y1(int i) {
+        return chunks[i >> CHUNK_SHIFT][4*(i & (CHUNK_SEGMENTS - 1)) + 1];
+    }
+
+    @Override
+    public double x2(int i) {
+        return chunks[i >> CHUNK_SHIFT][4*(i & (CHUNK_SEGMENTS - 1)) + 2];
+    }
+
+    @Override
+    public double y2(int i) {
+        return chunks[i >> CHUNK_SHIFT][4*(i & (CHUNK_SEGMENTS - 1)) + 3];
+    }
+
+    /**
+     *  Appends every segment to the buffer, a chunk at a time.
+     */
+    @Override
+    public void copyTo(SegmentBuffer target) {
+        target.ensureCapacity(target.size() + size);
+        for (double[] chunk : chunks) {
+            target.read(chunk, 0, chunk.length/4);
+        }
+    }
+
+    @Override
+    public void draw(Graphics g) {
+        for (double[] chunk : chunks) {
+            for (int i = 0; i < chunk.length; i += 4) {
+                g.drawLine((int) chunk[i], (int) chunk[i+1], (int) chunk[i+2], (int) chunk[i+3]);
+            }
+        }
+    }
+
+    //the chunks themselves, so tests can see what's shared
+    double[][] chunks() {
+        return chunks;
+    }
+}
@@ -0,0 +1,108 @@
+package customizablesine;
+
+import java.awt.Graphics2D;
+
+/**
+ *  A shape made of arbitrary line segments, like a free drawing. This is the general fallback for anything
+ *  without a closed form.
+ *
+ *  The segments are binned into a SegmentGrid, which doesn't depend on where the rays come from, and a radial
+ *  profile is cast through it from wherever the first query comes from. Queries from there are table lookups.
+ *  Queries from anywhere else (which is what dragging a TransformedShape around looks like from here) are cast
+ *  against the grid directly, and once as many of them have come from one new spot as the profile has entries,
+ *  the profile is recast from there. Only changing the segments themselves costs a pass over all of them.
+ *
+ *  The segments can be a SegmentList from the undo history, which is read where it is. Lists never change, so
+ *  copies of the shape share it, and moving or turning the segments themselves moves a copy of them instead.
+ */
+public class SegmentShape implements RadialShape {
+    private Segments lines;
+    private final SegmentGrid grid = new SegmentGrid();
+    private final RadialProfile profile;
+
+    //where the profile was cast from, and where the latest queries from anywhere else came from
+    private double profileX = Double.NaN, profileY = Double.NaN;
+    private double queryX = Double.NaN, queryY = Double.NaN;
+    private int queries;
+
+    public SegmentShape(Segments lines, int profileSize) {
+        this.lines = lines;
+        this.profile = new RadialProfile(profileSize);
+    }
+
+    public Segments getLines() {
+        return lines;
+    }
+
+    /**
+     *  Must be called after the segment list is changed from outside.
+     */
+    public void invalidate() {
+        grid.invalidate();
+    }
+
+    @Override
+    public double radius(double cx, double cy, double angle) {
+        if (grid.needsRebuild(lines)) {
+            grid.build(lines);
+            recast(cx, cy);
+        }
+        else if (cx != profileX || cy != profileY) {
+            if (cx != queryX || cy != queryY) {
+                queryX = cx;
+                queryY = cy;
+                queries = 0;
+            }
+            //recasting costs about as much as the queries that led up to it, so it never more than doubles the work
+            if (++queries < profile.size()) return grid.castRay(lines, cx, cy, angle, Double.POSITIVE_INFINITY);
+            recast(cx, cy);
+        }
+        return profile.sample(angle);
+    }
+
+    private void recast(double cx, double cy) {
+        profile.build(lines, grid, cx, cy);
+        profileX = cx;
+        profileY = cy;
+        queryX = queryY = Double.NaN;
+    }
+
+    @Override
+    public void translate(double dx, double dy) {
+        editableLines().translate(dx, dy);
+        invalidate();
+    }
+
+    @Override
+    public void rotate(double angle, double cx, double cy) {
+        editableLines().rotate(angle, cx, cy);
+        invalidate();
+    }
+
+    private SegmentBuffer editableLines() {
+        if (!(lines instanceof SegmentBuffer)) {
+            SegmentBuffer copy = new SegmentBuffer(lines.size());
+            lines.copyTo(copy);
+            lines = copy;
+        }
+        return (SegmentBuffer) lines;
+    }
+
+    @Override
+    public void draw(Graphics2D g) {
+        lines.draw(g);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return lines.isEmpty();
+    }
+
+    @Override
+    public RadialShape copy() {
+        if (lines instanceof SegmentList) return new SegmentShape(lines, profile.size());
+        SegmentBuffer copy = new SegmentBuffer(lines.size());
+        lines.copyTo(copy);
+        return new SegmentShape(copy, profile.size());
+    }
+}
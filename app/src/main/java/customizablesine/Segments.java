@@ -0,0 +1,29 @@
+package customizablesine;
+
+import java.awt.Graphics;
+
+/**
+ *  A list of line segments that can be read but not necessarily changed: either a SegmentBuffer being edited, or
+ *  a SegmentList kept in the undo history. Shapes and indexes only ever read their segments, so they can be built
+ *  straight from either without copying anything.
+ */
+public interface Segments {
+    int size();
+
+    boolean isEmpty();
+
+    double x1(int i);
+
+    double y1(int i);
+
+    double x2(int i);
+
+    double y2(int i);
+
+    /**
+     *  Appends every segment to the buffer.
+     */
+    void copyTo(SegmentBuffer target);
+
+    void draw(Graphics g);
+}
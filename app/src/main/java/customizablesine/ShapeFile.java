@@ -0,0 +1,121 @@
+package customizablesine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ *  Reads and writes drawings in a small binary format, made to open huge traced outlines quickly.
+ *
+ *  The file is a 16 byte header followed by every segment's x1, y1, x2, y2 packed back to back, little endian:
+ *
+ *  <pre>
+ *   0  "SINE"
+ *   4  int     format version, 1
+ *   8  int     flags, bit 0 set if the coordinates are floats rather than doubles
+ *  12  int     number of segments
+ *  16  coordinates
+ *  </pre>
+ *
+ *  Loading maps the file into memory and bulk copies the coordinates straight into a SegmentBuffer, so there's
+ *  no parsing per segment at all. Floats halve the size and are precise to well under a pixel for anything that
+ *  fits on screen, so that's what gets saved unless asked otherwise.
+ */
+public class ShapeFile {
+    public static final int MAGIC = 0x454E4953;     //"SINE" read as a little endian int
+    public static final int VERSION = 1;
+    public static final int FLOATS = 1;
+    public static final int HEADER_BYTES = 16;
+
+    //how much gets written per call when saving
+    private static final int CHUNK_SEGMENTS = 1 << 14;
+
+    /**
+     *  Returns true if the file starts like a shape file.
+     */
+    public static boolean isShapeFile(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer magic = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            while (magic.hasRemaining() && channel.read(magic) != -1) { }
+            return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+        }
+        finally {
+            channel.close();
+        }
+    }
+
+    /**
+     *  Appends every segment in the file to the buffer.
+     */
+    public static void load(Path file, SegmentBuffer segments) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long length = channel.size();
+            if (length < HEADER_BYTES) throw new IOException(file + ": too short to be a shape file");
+
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            if (mapped.getInt(0) != MAGIC) throw new IOException(file + ": not a shape file");
+            if (mapped.getInt(4) != VERSION) throw new IOException(file + ": unsupported shape file version " + mapped.getInt(4));
+            boolean floats = (mapped.getInt(8) & FLOATS) != 0;
+            int count = mapped.getInt(12);
+            long expected = HEADER_BYTES + 4L*count*(floats ? 4 : 8);
+            if (count < 0 || expected != length) {
+                throw new IOException(file + ": header says " + count + " segments, but the file is " + length + " bytes");
+            }
+
+            mapped.position(HEADER_BYTES);
+            if (floats) segments.read(mapped.asFloatBuffer(), count);
+            else segments.read(mapped.asDoubleBuffer(), count);
+        }
+        finally {
+            channel.close();
+        }
+    }
+
+    public static SegmentBuffer load(Path file) throws IOException {
+        SegmentBuffer segments = new SegmentBuffer();
+        load(file, segments);
+        return segments;
+    }
+
+    /**
+     *  Writes the segments to the file, replacing whatever was there.
+     *
+     *  @param floats  store the coordinates as floats, which halves the size
+     */
+    public static void save(Path file, SegmentBuffer segments, boolean floats) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                                               StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            int count = segments.size();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(floats ? FLOATS : 0).putInt(count).flip();
+            writeFully(channel, header);
+
+            ByteBuffer chunk = ByteBuffer.allocateDirect(4*CHUNK_SEGMENTS*(floats ? 4 : 8)).order(ByteOrder.LITTLE_ENDIAN);
+            for (int first = 0; first < count; first += CHUNK_SEGMENTS) {
+                int n = Math.min(CHUNK_SEGMENTS, count - first);
+                chunk.clear();
+                if (floats) segments.write(chunk.asFloatBuffer(), first, n);
+                else segments.write(chunk.asDoubleBuffer(), first, n);
+                chunk.limit(4*n*(floats ? 4 : 8));
+                writeFully(channel, chunk);
+            }
+        }
+        finally {
+            channel.close();
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
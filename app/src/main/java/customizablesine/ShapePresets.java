@@ -0,0 +1,35 @@
+package customizablesine;
+
+/**
+ *  The built-in shapes from the toolbar, sized to fit a square drawing region with the given side length.
+ */
+public class ShapePresets {
+
+    public static RadialShape circle(int drawRegionSize) {
+        double center = drawRegionSize/2;
+        double radius = drawRegionSize/4;
+
+        return new CircleShape(center, center, radius);
+    }
+
+    public static RadialShape square(int drawRegionSize) {
+        double center = drawRegionSize/2;
+
+        //corners at (center/2, center/2) and (center+center/2, center+center/2)
+        return PolygonShape.regular(center, center, center/2*Math.sqrt(2), 4, Math.PI/4);
+    }
+
+    public static RadialShape triangle(int drawRegionSize) {
+        double center = drawRegionSize/2;
+
+        return new PolygonShape(new double[] {center/2, center+center/2, center},
+                                new double[] {center+center/2, center+center/2, center/2});
+    }
+
+    public static RadialShape polygon(int drawRegionSize, int sides) {
+        double center = drawRegionSize/2;
+        double radius = drawRegionSize/4;
+
+        return PolygonShape.regular(center, center, radius, sides, 0);
+    }
+}
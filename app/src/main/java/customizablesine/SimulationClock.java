@@ -0,0 +1,67 @@
+package customizablesine;
+
+/**
+ *  Turns wall-clock time into a whole number of fixed-size simulation steps.
+ *
+ *  Elapsed time from System.nanoTime goes into an accumulator and comes back out one step at a time, so the
+ *  simulation advances at the same rate no matter how often (or how unevenly) it gets polled. If polling stalls,
+ *  the missed steps are caught up on the next poll, up to a limit so that something like the machine sleeping
+ *  doesn't make us try to simulate the whole gap at once.
+ */
+public class SimulationClock {
+    private final long stepNanos;
+    private final int maxCatchUpSteps;
+
+    private long lastTime;
+    private long accumulator;
+    private int droppedSteps;
+    private boolean started = false;
+
+    public SimulationClock(long stepNanos, int maxCatchUpSteps) {
+        this.stepNanos = stepNanos;
+        this.maxCatchUpSteps = maxCatchUpSteps;
+    }
+
+    /**
+     *  Returns how many steps should be run to catch up to the given time.
+     */
+    public int advance(long now) {
+        if (!started) {
+            started = true;
+            lastTime = now;
+            return 0;
+        }
+
+        accumulator += now - lastTime;
+        lastTime = now;
+
+        long steps = accumulator / stepNanos;
+        accumulator -= steps*stepNanos;
+
+        //too far behind to be worth catching up, just drop the backlog
+        droppedSteps = (int) Math.max(0, steps - maxCatchUpSteps);
+        if (steps > maxCatchUpSteps) steps = maxCatchUpSteps;
+
+        return (int) steps;
+    }
+
+    /**
+     *  Forgets the time of the last poll, so the next one starts counting from scratch.
+     */
+    public void reset() {
+        started = false;
+        accumulator = 0;
+        droppedSteps = 0;
+    }
+
+    /**
+     *  Returns how many steps the last call to advance() gave up on instead of returning.
+     */
+    public int getDroppedSteps() {
+        return droppedSteps;
+    }
+
+    public double getStepSeconds() {
+        return stepNanos / 1e9;
+    }
+}
@@ -0,0 +1,116 @@
+package customizablesine;
+
+/**
+ *  Works out which harmonics a shape's wave is made of, on its own thread.
+ *
+ *  One period of the wave (the same samples the audio wavetable is made of) is run through an FFT, and the
+ *  amplitude of every harmonic is published as a fresh array that readers can pick up at any time without
+ *  locking. Requests that come in while a result is being worked out replace each other, so only the newest one
+ *  is computed next. All the FFT buffers are allocated once, up front.
+ */
+public class SpectrumAnalyzer implements Runnable {
+    private final FFT fft;
+    private final double[] re, im;
+    private final Runnable listener;
+
+    private final Object lock = new Object();
+    private RadialShape pendingShape;       //guarded by lock, like the two below
+    private double pendingCenter, pendingRotation;
+    private volatile boolean busy;
+    private volatile double[] harmonics = new double[0];
+    private Thread thread;
+
+    /**
+     *  @param size      samples per period, a power of two; the result has size/2 harmonics
+     *  @param listener  run on the analyzer's thread after each new result is published
+     */
+    public SpectrumAnalyzer(int size, Runnable listener) {
+        this.fft = new FFT(size);
+        this.re = new double[size];
+        this.im = new double[size];
+        this.listener = listener;
+    }
+
+    /**
+     *  Returns the amplitude of each harmonic of the latest result, relative to the size of the drawing region
+     *  like the wave itself. Index 0 is the DC offset and index 1 is the fundamental. Don't change the array.
+     */
+    public double[] getHarmonics() {
+        return harmonics;
+    }
+
+    /**
+     *  Returns true if nothing is being worked out or waiting to be, so a new request would start right away.
+     */
+    public boolean isIdle() {
+        return !busy;
+    }
+
+    /**
+     *  Asks for the spectrum of the shape as seen from (center, center), turned by the given rotation. The shape
+     *  is read from the analyzer's thread, so it has to be one nobody else is using, like a fresh copy.
+     */
+    public void submit(RadialShape shape, double center, double rotation) {
+        synchronized (lock) {
+            pendingShape = shape;
+            pendingCenter = center;
+            pendingRotation = rotation;
+            busy = true;
+            if (thread == null) {
+                thread = new Thread(this, "spectrum");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                thread.start();
+            }
+            lock.notify();
+        }
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            RadialShape shape;
+            double center, rotation;
+            synchronized (lock) {
+                while (pendingShape == null) {
+                    busy = false;
+                    try {
+                        lock.wait();
+                    }
+                    catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                shape = pendingShape;
+                center = pendingCenter;
+                rotation = pendingRotation;
+                pendingShape = null;
+            }
+
+            harmonics = analyze(shape, center, rotation);
+            listener.run();
+        }
+    }
+
+    private double[] analyze(RadialShape shape, double center, double rotation) {
+        int size = fft.size();
+        boolean empty = shape.isEmpty();
+        for (int i = 0; i < size; i++) {
+            //same lookup as DrawPanel.step, with misses counting as 0 like in the audio
+            double angle = 2*Math.PI*i/size;
+            double radius = empty ? Double.NaN : shape.radius(center, center, -angle - rotation);
+            re[i] = radius == radius ? radius*Math.sin(angle)/center : 0;
+            im[i] = 0;
+        }
+
+        fft.transform(re, im);
+
+        //a real signal's spectrum is mirrored, so fold the negative frequencies into the positive ones
+        double[] result = new double[size/2];
+        result[0] = Math.abs(re[0])/size;
+        for (int k = 1; k < size/2; k++) {
+            result[k] = 2*Math.sqrt(re[k]*re[k] + im[k]*im[k])/size;
+        }
+        return result;
+    }
+}
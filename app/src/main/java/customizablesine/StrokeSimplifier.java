@@ -0,0 +1,147 @@
+package customizablesine;
+
+import java.util.Arrays;
+
+/**
+ *  Cuts down the number of segments a free drawing is made of, while it's being drawn.
+ *
+ *  Every mouse drag event would normally add a segment, including zero-length ones and long runs of tiny collinear
+ *  ones. Instead, points closer than half the tolerance to the last kept point are skipped, and as long as the
+ *  stroke keeps going in a straight enough line, the last segment is just stretched to the new point rather than
+ *  adding another one. When the stroke is finished, Ramer-Douglas-Peucker takes out whatever is left that doesn't
+ *  change the shape by more than the other half of the tolerance.
+ *
+ *  Either way, no point of the original stroke ends up further than the tolerance from the simplified one.
+ */
+public class StrokeSimplifier {
+    //how many raw points a stretched segment can stand in for before it's checked in as a corner anyway
+    private static final int MAX_PENDING = 256;
+
+    private final SegmentBuffer lines;
+    private final double tolerance;
+    //how many segments were in the list before this stroke
+    private int start;
+
+    //the points we've kept so far, in order; the stroke is the polyline through them
+    private double[] xs = new double[64], ys = new double[64];
+    private int count;
+
+    //raw points the last segment was stretched over, which it must stay close to
+    private double[] pendingX = new double[MAX_PENDING], pendingY = new double[MAX_PENDING];
+    private int pendingCount;
+
+    /**
+     *  @param lines      where the stroke's segments go, after whatever is already there, kept up to date as points
+     *                    are added
+     *  @param tolerance  the furthest (in pixels) the simplified stroke may stray from the mouse's actual path
+     */
+    public StrokeSimplifier(SegmentBuffer lines, double tolerance) {
+        this.lines = lines;
+        this.tolerance = tolerance;
+    }
+
+    public void begin(double x, double y) {
+        start = lines.size();
+        count = 0;
+        pendingCount = 0;
+        keep(x, y);
+    }
+
+    /**
+     *  Extends the stroke to the given point.
+     *
+     *  @return  whether that changed the segments, which it doesn't if the point was too close to the last one
+     */
+    public boolean add(double x, double y) {
+        double lastX = xs[count-1], lastY = ys[count-1];
+        double half = tolerance/2;
+        if ((x-lastX)*(x-lastX) + (y-lastY)*(y-lastY) < half*half) return false;
+
+        //try stretching the last segment out to the new point instead of adding a new one
+        if (count >= 2 && pendingCount < MAX_PENDING) {
+            double anchorX = xs[count-2], anchorY = ys[count-2];
+            boolean straight = distanceToSegment(lastX, lastY, anchorX, anchorY, x, y) <= half;
+            for (int i = 0; straight && i < pendingCount; i++) {
+                straight = distanceToSegment(pendingX[i], pendingY[i], anchorX, anchorY, x, y) <= half;
+            }
+
+            if (straight) {
+                pendingX[pendingCount] = lastX;
+                pendingY[pendingCount] = lastY;
+                pendingCount++;
+                xs[count-1] = x;
+                ys[count-1] = y;
+                lines.set(lines.size() - 1, anchorX, anchorY, x, y);
+                return true;
+            }
+        }
+
+        pendingCount = 0;
+        keep(x, y);
+        lines.add(lastX, lastY, x, y);
+        return true;
+    }
+
+    /**
+     *  Simplifies the finished stroke as a whole and rewrites its part of the segment list with the result. The
+     *  segments that were there before the stroke are left alone.
+     */
+    public void finish() {
+        boolean[] keep = new boolean[count];
+        keep[0] = true;
+        keep[count-1] = true;
+
+        //Ramer-Douglas-Peucker, with an explicit stack of ranges so long strokes can't overflow the call stack
+        int[] stack = new int[64];
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = count-1;
+        while (top > 0) {
+            int last = stack[--top], first = stack[--top];
+            int furthest = -1;
+            double furthestDistance = tolerance/2;
+            for (int i = first+1; i < last; i++) {
+                double distance = distanceToSegment(xs[i], ys[i], xs[first], ys[first], xs[last], ys[last]);
+                if (distance > furthestDistance) {
+                    furthest = i;
+                    furthestDistance = distance;
+                }
+            }
+
+            if (furthest != -1) {
+                keep[furthest] = true;
+                if (top + 4 > stack.length) stack = Arrays.copyOf(stack, 2*stack.length);
+                stack[top++] = first;
+                stack[top++] = furthest;
+                stack[top++] = furthest;
+                stack[top++] = last;
+            }
+        }
+
+        lines.truncate(start);
+        int previous = 0;
+        for (int i = 1; i < count; i++) {
+            if (!keep[i]) continue;
+            lines.add(xs[previous], ys[previous], xs[i], ys[i]);
+            previous = i;
+        }
+    }
+
+    private void keep(double x, double y) {
+        if (count == xs.length) {
+            xs = Arrays.copyOf(xs, 2*count);
+            ys = Arrays.copyOf(ys, 2*count);
+        }
+        xs[count] = x;
+        ys[count] = y;
+        count++;
+    }
+
+    private static double distanceToSegment(double px, double py, double x1, double y1, double x2, double y2) {
+        double dx = x2-x1, dy = y2-y1;
+        double lengthSq = dx*dx + dy*dy;
+        double t = lengthSq == 0 ? 0 : Math.max(0, Math.min(1, ((px-x1)*dx + (py-y1)*dy) / lengthSq));
+        double ex = x1 + t*dx - px, ey = y1 + t*dy - py;
+        return Math.sqrt(ex*ex + ey*ey);
+    }
+}
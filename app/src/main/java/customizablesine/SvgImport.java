@@ -0,0 +1,500 @@
+package customizablesine;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
+import java.awt.geom.Rectangle2D;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Locale;
+
+/**
+ *  Turns the outlines in an SVG file into line segments for a free drawing.
+ *
+ *  Every path, polygon, polyline, rect, circle, ellipse and line is read (with the transforms of the elements
+ *  around it) into one Path2D, with arcs converted to cubic curves on the way. The curves are then flattened into
+ *  straight lines by Java2D's own flattening iterator, to within the given distance in pixels, after the whole
+ *  outline has been scaled to fit the drawing region. Anything under defs, clip paths, masks and the like is skipped,
+ *  since it isn't drawn as is.
+ *
+ *  The file is streamed rather than loaded as a DOM, so big traced outlines don't need much more memory than their
+ *  segments.
+ */
+public class SvgImport {
+
+    private static final String USAGE =
+        "usage: java -jar customizable-sine.jar --import-svg FILE [options]\n" +
+        "  --out FILE         where to write the shape file (default: FILE with .sine instead of .svg)\n" +
+        "  --size PIXELS      side of the drawing region to fit the outline into (default 540)\n" +
+        "  --flatness PIXELS  how far the flattened lines can stray from the curves (default 0.25)\n" +
+        "  --no-fit           keep the SVG's own coordinates instead of fitting them to the region\n" +
+        "  --doubles          store double precision coordinates instead of floats";
+
+    //fraction of the drawing region the outline is scaled to fill, leaving a margin around it like the presets
+    private static final double FIT = 0.8;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0 || args[0].equals("--help") || args[0].equals("-h")) {
+            System.out.println(USAGE);
+            return;
+        }
+
+        Path in = Paths.get(args[0]);
+        Path out = null;
+        int size = 540;
+        double flatness = 0.25;
+        boolean fit = true, doubles = false;
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--no-fit")) fit = false;
+            else if (arg.equals("--doubles")) doubles = true;
+            else if (i+1 == args.length) fail("missing value for " + arg);
+            else if (arg.equals("--out")) out = Paths.get(args[++i]);
+            else if (arg.equals("--size")) size = Integer.parseInt(args[++i]);
+            else if (arg.equals("--flatness")) flatness = Double.parseDouble(args[++i]);
+            else fail("unknown option " + arg);
+        }
+        if (out == null) {
+            String name = in.getFileName().toString();
+            out = in.resolveSibling((name.contains(".") ? name.substring(0, name.lastIndexOf('.')) : name) + ".sine");
+        }
+
+        long start = System.nanoTime();
+        SegmentBuffer segments = read(in, flatness, fit ? size : 0);
+        ShapeFile.save(out, segments, !doubles);
+        System.out.printf(Locale.ROOT, "wrote %d segments to %s in %.0f ms%n", segments.size(), out, (System.nanoTime() - start)/1e6);
+    }
+
+    /**
+     *  Reads every outline in the file as line segments.
+     *
+     *  @param flatness  the most a line can be from the curve it replaces, in output pixels
+     *  @param fitSize   scale and center the outline to fit a drawing region this size, or 0 to keep the SVG's
+     *                   own coordinates
+     */
+    public static SegmentBuffer read(Path file, double flatness, int fitSize) throws IOException {
+        Path2D.Double outline = parse(file);
+
+        AffineTransform placement = new AffineTransform();
+        if (fitSize > 0) {
+            //bounds of the flattened outline, since the control points of the curves can stick out well past it
+            double[] bounds = bounds(outline, flatness);
+            double width = bounds[2] - bounds[0], height = bounds[3] - bounds[1];
+            if (width > 0 || height > 0) {
+                double scale = FIT*fitSize/Math.max(width, height);
+                placement.translate(fitSize/2.0, fitSize/2.0);
+                placement.scale(scale, scale);
+                placement.translate(-(bounds[0] + bounds[2])/2, -(bounds[1] + bounds[3])/2);
+            }
+        }
+
+        SegmentBuffer segments = new SegmentBuffer();
+        double[] point = new double[6];
+        double startX = 0, startY = 0, lastX = 0, lastY = 0;
+        for (PathIterator it = outline.getPathIterator(placement, flatness); !it.isDone(); it.next()) {
+            switch (it.currentSegment(point)) {
+                case PathIterator.SEG_MOVETO:
+                    startX = lastX = point[0];
+                    startY = lastY = point[1];
+                    break;
+                case PathIterator.SEG_LINETO:
+                    if (point[0] != lastX || point[1] != lastY) segments.add(lastX, lastY, point[0], point[1]);
+                    lastX = point[0];
+                    lastY = point[1];
+                    break;
+                case PathIterator.SEG_CLOSE:
+                    if (startX != lastX || startY != lastY) segments.add(lastX, lastY, startX, startY);
+                    lastX = startX;
+                    lastY = startY;
+                    break;
+            }
+        }
+        return segments;
+    }
+
+    private static double[] bounds(Path2D outline, double flatness) {
+        double[] bounds = {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        double[] point = new double[6];
+        for (PathIterator it = outline.getPathIterator(null, flatness); !it.isDone(); it.next()) {
+            if (it.currentSegment(point) == PathIterator.SEG_CLOSE) continue;
+            bounds[0] = Math.min(bounds[0], point[0]);
+            bounds[1] = Math.min(bounds[1], point[1]);
+            bounds[2] = Math.max(bounds[2], point[0]);
+            bounds[3] = Math.max(bounds[3], point[1]);
+        }
+        return bounds;
+    }
+
+    private static Path2D.Double parse(Path file) throws IOException {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        //an outline never needs anything from outside the file
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+        Path2D.Double outline = new Path2D.Double();
+        Deque<AffineTransform> transforms = new ArrayDeque<AffineTransform>();
+        transforms.push(new AffineTransform());
+        int skipDepth = 0;
+
+        InputStream stream = Files.newInputStream(file);
+        try {
+            XMLStreamReader reader = factory.createXMLStreamReader(stream);
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = reader.getLocalName();
+                    AffineTransform transform = new AffineTransform(transforms.peek());
+                    String transformList = reader.getAttributeValue(null, "transform");
+                    if (transformList != null) transform.concatenate(parseTransform(transformList));
+                    transforms.push(transform);
+
+                    if (skipDepth > 0 || name.matches("defs|clipPath|mask|symbol|pattern|marker|metadata")
+                        || "none".equals(reader.getAttributeValue(null, "display"))) {
+                        skipDepth++;
+                        continue;
+                    }
+
+                    Path2D.Double shape = null;
+                    if (name.equals("path")) {
+                        String d = reader.getAttributeValue(null, "d");
+                        if (d != null) shape = new PathParser(d).parse();
+                    }
+                    else if (name.equals("polygon") || name.equals("polyline")) {
+                        String points = reader.getAttributeValue(null, "points");
+                        if (points != null) shape = parsePoints(points, name.equals("polygon"));
+                    }
+                    else if (name.equals("rect")) {
+                        shape = new Path2D.Double(new Rectangle2D.Double(length(reader, "x"), length(reader, "y"),
+                                                                         length(reader, "width"), length(reader, "height")));
+                    }
+                    else if (name.equals("circle") || name.equals("ellipse")) {
+                        double rx = length(reader, name.equals("circle") ? "r" : "rx");
+                        double ry = name.equals("circle") ? rx : length(reader, "ry");
+                        shape = new Path2D.Double(new Ellipse2D.Double(length(reader, "cx") - rx, length(reader, "cy") - ry, 2*rx, 2*ry));
+                    }
+                    else if (name.equals("line")) {
+                        shape = new Path2D.Double(new Line2D.Double(length(reader, "x1"), length(reader, "y1"),
+                                                                    length(reader, "x2"), length(reader, "y2")));
+                    }
+                    if (shape != null) outline.append(shape.getPathIterator(transform), false);
+                }
+                else if (event == XMLStreamConstants.END_ELEMENT) {
+                    transforms.pop();
+                    if (skipDepth > 0) skipDepth--;
+                }
+            }
+            reader.close();
+        }
+        catch (XMLStreamException e) {
+            throw new IOException(file + ": " + e.getMessage(), e);
+        }
+        catch (IllegalArgumentException e) {
+            throw new IOException(file + ": bad path data: " + e.getMessage(), e);
+        }
+        finally {
+            stream.close();
+        }
+        return outline;
+    }
+
+    //a plain number attribute, 0 if it's missing; units and percentages aren't supported
+    private static double length(XMLStreamReader reader, String attribute) {
+        String value = reader.getAttributeValue(null, attribute);
+        if (value == null) return 0;
+        PathParser parser = new PathParser(value);
+        return parser.hasNumber() ? parser.number() : 0;
+    }
+
+    private static Path2D.Double parsePoints(String points, boolean closed) {
+        PathParser parser = new PathParser(points);
+        Path2D.Double shape = new Path2D.Double();
+        boolean first = true;
+        while (parser.hasNumber()) {
+            double x = parser.number(), y = parser.number();
+            if (first) shape.moveTo(x, y);
+            else shape.lineTo(x, y);
+            first = false;
+        }
+        if (closed && !first) shape.closePath();
+        return shape;
+    }
+
+    /**
+     *  Parses a transform attribute, like "translate(10 20) rotate(45)". The transforms apply right to left, the
+     *  same as concatenating them left to right.
+     */
+    static AffineTransform parseTransform(String list) {
+        AffineTransform transform = new AffineTransform();
+        int i = 0;
+        while (true) {
+            int open = list.indexOf('(', i);
+            if (open == -1) break;
+            int close = list.indexOf(')', open);
+            if (close == -1) throw new IllegalArgumentException("unclosed transform: " + list);
+
+            String name = list.substring(i, open).replace(",", " ").trim();
+            PathParser parser = new PathParser(list.substring(open + 1, close));
+            double[] v = new double[6];
+            int n = 0;
+            while (parser.hasNumber() && n < 6) v[n++] = parser.number();
+
+            if (name.equals("matrix") && n == 6) transform.concatenate(new AffineTransform(v[0], v[1], v[2], v[3], v[4], v[5]));
+            else if (name.equals("translate")) transform.translate(v[0], n > 1 ? v[1] : 0);
+            else if (name.equals("scale")) transform.scale(v[0], n > 1 ? v[1] : v[0]);
+            else if (name.equals("rotate")) transform.rotate(Math.toRadians(v[0]), n > 2 ? v[1] : 0, n > 2 ? v[2] : 0);
+            else if (name.equals("skewX")) transform.shear(Math.tan(Math.toRadians(v[0])), 0);
+            else if (name.equals("skewY")) transform.shear(0, Math.tan(Math.toRadians(v[0])));
+            else throw new IllegalArgumentException("unknown transform " + name);
+
+            i = close + 1;
+        }
+        return transform;
+    }
+
+    /**
+     *  Reads SVG path data into a Path2D. Lines and Bezier curves map straight onto Path2D; elliptical arcs are
+     *  split into pieces of at most a quarter turn, and each piece becomes a cubic curve.
+     */
+    static class PathParser {
+        private final String data;
+        private int position;
+
+        PathParser(String data) {
+            this.data = data;
+        }
+
+        Path2D.Double parse() {
+            Path2D.Double path = new Path2D.Double();
+            double x = 0, y = 0, startX = 0, startY = 0;
+            double controlX = 0, controlY = 0;  //last control point, for the smooth curve commands to reflect
+            char previous = ' ';
+            char command = ' ';
+
+            while (true) {
+                skipSeparators();
+                if (position == data.length()) break;
+                int start = position;
+                char c = data.charAt(position);
+                if (Character.isLetter(c) && c != 'e' && c != 'E') {
+                    command = c;
+                    position++;
+                }
+                else if (command == ' ') {
+                    throw new IllegalArgumentException("expected a command at " + position + " in \"" + data + "\"");
+                }
+                //otherwise it's another set of numbers for the same command
+
+                boolean relative = Character.isLowerCase(command);
+                double baseX = relative ? x : 0, baseY = relative ? y : 0;
+                switch (Character.toUpperCase(command)) {
+                    case 'M':
+                        x = baseX + number();
+                        y = baseY + number();
+                        path.moveTo(x, y);
+                        startX = x;
+                        startY = y;
+                        //numbers after a moveto are treated as lineto
+                        command = relative ? 'l' : 'L';
+                        break;
+                    case 'L':
+                        x = baseX + number();
+                        y = baseY + number();
+                        path.lineTo(x, y);
+                        break;
+                    case 'H':
+                        x = baseX + number();
+                        path.lineTo(x, y);
+                        break;
+                    case 'V':
+                        y = baseY + number();
+                        path.lineTo(x, y);
+                        break;
+                    case 'C': {
+                        double x1 = baseX + number(), y1 = baseY + number();
+                        controlX = baseX + number();
+                        controlY = baseY + number();
+                        x = baseX + number();
+                        y = baseY + number();
+                        path.curveTo(x1, y1, controlX, controlY, x, y);
+                        break;
+                    }
+                    case 'S': {
+                        boolean smooth = "CcSs".indexOf(previous) != -1;
+                        double x1 = smooth ? 2*x - controlX : x, y1 = smooth ? 2*y - controlY : y;
+                        controlX = baseX + number();
+                        controlY = baseY + number();
+                        x = baseX + number();
+                        y = baseY + number();
+                        path.curveTo(x1, y1, controlX, controlY, x, y);
+                        break;
+                    }
+                    case 'Q':
+                        controlX = baseX + number();
+                        controlY = baseY + number();
+                        x = baseX + number();
+                        y = baseY + number();
+                        path.quadTo(controlX, controlY, x, y);
+                        break;
+                    case 'T': {
+                        boolean smooth = "QqTt".indexOf(previous) != -1;
+                        controlX = smooth ? 2*x - controlX : x;
+                        controlY = smooth ? 2*y - controlY : y;
+                        x = baseX + number();
+                        y = baseY + number();
+                        path.quadTo(controlX, controlY, x, y);
+                        break;
+                    }
+                    case 'A': {
+                        double rx = number(), ry = number(), phi = Math.toRadians(number());
+                        boolean large = flag(), sweep = flag();
+                        double x2 = baseX + number(), y2 = baseY + number();
+                        arcTo(path, x, y, rx, ry, phi, large, sweep, x2, y2);
+                        x = x2;
+                        y = y2;
+                        break;
+                    }
+                    case 'Z':
+                        path.closePath();
+                        x = startX;
+                        y = startY;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("unknown path command " + command);
+                }
+                previous = command;
+                //closepath takes no numbers, so it can't be repeated without a command letter
+                if (command == 'Z' || command == 'z') command = ' ';
+                //every command eats something, or the loop would never end on bad data
+                if (position == start) {
+                    throw new IllegalArgumentException("unexpected \"" + c + "\" at " + position + " in \"" + data + "\"");
+                }
+            }
+            return path;
+        }
+
+        /**
+         *  Adds an SVG arc from (x1, y1) to (x2, y2), following the endpoint to center conversion in the SVG spec's
+         *  implementation notes.
+         */
+        static void arcTo(Path2D.Double path, double x1, double y1, double rx, double ry, double phi,
+                                  boolean large, boolean sweep, double x2, double y2) {
+            if (x1 == x2 && y1 == y2) return;
+            rx = Math.abs(rx);
+            ry = Math.abs(ry);
+            if (rx == 0 || ry == 0) {
+                path.lineTo(x2, y2);
+                return;
+            }
+
+            double cos = Math.cos(phi), sin = Math.sin(phi);
+            double dx = (x1 - x2)/2, dy = (y1 - y2)/2;
+            double px = cos*dx + sin*dy, py = -sin*dx + cos*dy;
+
+            //radii too small to reach are scaled up until they just do
+            double lambda = px*px/(rx*rx) + py*py/(ry*ry);
+            if (lambda > 1) {
+                rx *= Math.sqrt(lambda);
+                ry *= Math.sqrt(lambda);
+            }
+
+            double numerator = rx*rx*ry*ry - rx*rx*py*py - ry*ry*px*px;
+            double root = Math.sqrt(Math.max(0, numerator/(rx*rx*py*py + ry*ry*px*px)));
+            if (large == sweep) root = -root;
+            double cxp = root*rx*py/ry, cyp = -root*ry*px/rx;
+            double cx = cos*cxp - sin*cyp + (x1 + x2)/2, cy = sin*cxp + cos*cyp + (y1 + y2)/2;
+
+            double start = Math.atan2((py - cyp)/ry, (px - cxp)/rx);
+            double end = Math.atan2((-py - cyp)/ry, (-px - cxp)/rx);
+            double extent = end - start;
+            if (!sweep && extent > 0) extent -= 2*Math.PI;
+            else if (sweep && extent < 0) extent += 2*Math.PI;
+
+            int pieces = (int) Math.ceil(Math.abs(extent)/(Math.PI/2) - 1e-9);
+            double step = extent/pieces;
+            double k = 4.0/3*Math.tan(step/4);
+            for (int i = 0; i < pieces; i++) {
+                double t0 = start + i*step, t1 = t0 + step;
+                double c0 = Math.cos(t0), s0 = Math.sin(t0), c1 = Math.cos(t1), s1 = Math.sin(t1);
+                //points on the ellipse and their derivatives, turned by phi
+                double ax = cx + rx*cos*c0 - ry*sin*s0, ay = cy + rx*sin*c0 + ry*cos*s0;
+                double bx = cx + rx*cos*c1 - ry*sin*s1, by = cy + rx*sin*c1 + ry*cos*s1;
+                double dax = -rx*cos*s0 - ry*sin*c0, day = -rx*sin*s0 + ry*cos*c0;
+                double dbx = -rx*cos*s1 - ry*sin*c1, dby = -rx*sin*s1 + ry*cos*c1;
+                if (i == pieces - 1) {
+                    bx = x2;
+                    by = y2;
+                }
+                path.curveTo(ax + k*dax, ay + k*day, bx - k*dbx, by - k*dby, bx, by);
+            }
+        }
+
+        boolean hasNumber() {
+            skipSeparators();
+            if (position == data.length()) return false;
+            char c = data.charAt(position);
+            return Character.isDigit(c) || c == '-' || c == '+' || c == '.';
+        }
+
+        double number() {
+            if (!hasNumber()) throw new IllegalArgumentException("expected a number at " + position + " in \"" + data + "\"");
+            int start = position;
+            if (data.charAt(position) == '-' || data.charAt(position) == '+') position++;
+            boolean dot = false;
+            while (position < data.length()) {
+                char c = data.charAt(position);
+                if (Character.isDigit(c)) position++;
+                else if (c == '.' && !dot) {
+                    dot = true;
+                    position++;
+                }
+                else break;
+            }
+            //exponent, but not the start of a following command
+            if (position < data.length() && (data.charAt(position) == 'e' || data.charAt(position) == 'E')) {
+                int mark = position++;
+                if (position < data.length() && (data.charAt(position) == '-' || data.charAt(position) == '+')) position++;
+                if (position < data.length() && Character.isDigit(data.charAt(position))) {
+                    while (position < data.length() && Character.isDigit(data.charAt(position))) position++;
+                }
+                else {
+                    position = mark;
+                }
+            }
+            return Double.parseDouble(data.substring(start, position));
+        }
+
+        //arc flags are a single 0 or 1, and don't need anything between them and the next number
+        private boolean flag() {
+            skipSeparators();
+            if (position == data.length() || (data.charAt(position) != '0' && data.charAt(position) != '1')) {
+                throw new IllegalArgumentException("expected an arc flag at " + position);
+            }
+            return data.charAt(position++) == '1';
+        }
+
+        private void skipSeparators() {
+            while (position < data.length()) {
+                char c = data.charAt(position);
+                if (c == ',' || Character.isWhitespace(c)) position++;
+                else break;
+            }
+        }
+    }
+
+    private static void fail(String message) {
+        System.err.println(message);
+        System.err.println(USAGE);
+        System.exit(2);
+    }
+}
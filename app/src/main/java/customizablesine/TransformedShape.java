@@ -0,0 +1,111 @@
+package customizablesine;
+
+import java.awt.Graphics2D;
+
+/**
+ *  A shape that's been moved and turned, without actually moving any of its points.
+ *
+ *  The placement is kept as a single rigid transform (p -> R(angle)*p + offset). Dragging or rotating just updates
+ *  that transform, which takes the same time whether the shape is a circle or a 100k-segment drawing, and since
+ *  the angle is only ever added to, repeated rotations don't build up rounding errors in the shape itself. Queries
+ *  are answered by moving the ray into the shape's own coordinates instead.
+ */
+public class TransformedShape implements RadialShape {
+    private final RadialShape shape;
+    private double angle, offsetX, offsetY;
+
+    public TransformedShape(RadialShape shape) {
+        this.shape = shape;
+    }
+
+    public RadialShape getShape() {
+        return shape;
+    }
+
+    public double getAngle() {
+        return angle;
+    }
+
+    public double getOffsetX() {
+        return offsetX;
+    }
+
+    public double getOffsetY() {
+        return offsetY;
+    }
+
+    /**
+     *  Puts the shape back at a placement read from the getters earlier.
+     */
+    public void setPlacement(double angle, double offsetX, double offsetY) {
+        this.angle = angle;
+        this.offsetX = offsetX;
+        this.offsetY = offsetY;
+    }
+
+    /**
+     *  Goes back to the untransformed shape.
+     */
+    public void reset() {
+        angle = 0;
+        offsetX = 0;
+        offsetY = 0;
+    }
+
+    /**
+     *  Applies the transform to the underlying shape for real and resets it. This costs as much as moving every
+     *  point, so it's only for when something needs the shape's actual coordinates.
+     */
+    public void bake() {
+        shape.rotate(angle, 0, 0);
+        shape.translate(offsetX, offsetY);
+        reset();
+    }
+
+    @Override
+    public double radius(double cx, double cy, double angle) {
+        //rigid transforms keep distances, so cast the ray from the point that maps onto (cx, cy) instead
+        double cos = Math.cos(this.angle), sin = Math.sin(this.angle);
+        double x = cx - offsetX, y = cy - offsetY;
+        return shape.radius(x*cos + y*sin, y*cos - x*sin, angle - this.angle);
+    }
+
+    @Override
+    public void translate(double dx, double dy) {
+        offsetX += dx;
+        offsetY += dy;
+    }
+
+    @Override
+    public void rotate(double angle, double cx, double cy) {
+        //turning R*p + offset around c gives R'*R*p + R'*(offset - c) + c
+        double cos = Math.cos(angle), sin = Math.sin(angle);
+        double x = offsetX - cx, y = offsetY - cy;
+        offsetX = x*cos - y*sin + cx;
+        offsetY = x*sin + y*cos + cy;
+        this.angle += angle;
+    }
+
+    @Override
+    public void draw(Graphics2D g) {
+        g.translate(offsetX, offsetY);
+        g.rotate(angle);
+        shape.draw(g);
+        g.rotate(-angle);
+        g.translate(-offsetX, -offsetY);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return shape.isEmpty();
+    }
+
+    @Override
+    public TransformedShape copy() {
+        TransformedShape copy = new TransformedShape(shape.copy());
+        copy.angle = angle;
+        copy.offsetX = offsetX;
+        copy.offsetY = offsetY;
+        return copy;
+    }
+}
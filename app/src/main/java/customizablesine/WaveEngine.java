@@ -0,0 +1,315 @@
+package customizablesine;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ *  The waveform generator without any UI: hand it shapes and parameters, and pull samples out of it.
+ *
+ *  Samples come from fill(), which is meant to be called over and over from one producer thread (an audio
+ *  callback, a pipeline stage, the Swing timer) and doesn't allocate. The parameters can be changed from any other
+ *  thread at the same time without locking. Every change publishes a new immutable snapshot of all of them, and
+ *  the producer picks up the newest snapshot once at the start of each fill(), so a block is never generated from
+ *  a mix of old and new values. The one in use and the one being published are the only two that matter at any
+ *  time; anything older is just garbage.
+ *
+ *  Each voice is one shape with its rotation, frequency and amplitude, and all of them are summed like in an
+ *  OscillatorBank. The first voice is the main one that the single-voice setters change; a lone voice gives the
+ *  same wave as the shape on its own. Samples are the summed heights of the rays' intersections above the center,
+ *  divided by the distance from the center to the edge of the drawing region, so anything drawn inside the region
+ *  stays within [-1, 1].
+ *
+ *  Shapes are read from the producer thread, so whatever is passed in must not be changed by anyone else while the
+ *  engine can see it (give it a copy), unless the producer is the only thread that changes it.
+ *
+ *  Big stacks of voices are summed over a fork-join pool, and fill() waits for it. A producer that mustn't be held
+ *  up, like a UI thread, can use fillReady() and prepare() instead: the voices after the main one are worked out a
+ *  block ahead in the background, and the main voice is added in on the producer thread when the block is picked
+ *  up, so its shape can still be the one being edited there.
+ */
+public class WaveEngine {
+
+    /**
+     *  One shape and how to play it. Immutable, so it can be shared between snapshots.
+     */
+    public static final class Voice {
+        public final RadialShape shape;
+        public final double rotation, frequency, amplitude;
+
+        /**
+         *  @param rotation   how far the shape is turned, in radians
+         *  @param frequency  turns of the ray per second
+         */
+        public Voice(RadialShape shape, double rotation, double frequency, double amplitude) {
+            this.shape = shape;
+            this.rotation = rotation;
+            this.frequency = frequency;
+            this.amplitude = amplitude;
+        }
+
+        public Voice withShape(RadialShape shape) {
+            return new Voice(shape, rotation, frequency, amplitude);
+        }
+
+        public Voice withRotation(double rotation) {
+            return new Voice(shape, rotation, frequency, amplitude);
+        }
+
+        public Voice withFrequency(double frequency) {
+            return new Voice(shape, rotation, frequency, amplitude);
+        }
+
+        public Voice withAmplitude(double amplitude) {
+            return new Voice(shape, rotation, frequency, amplitude);
+        }
+    }
+
+    private static final class Snapshot {
+        final Voice[] voices;
+        final double center, missValue;
+
+        Snapshot(Voice[] voices, double center, double missValue) {
+            this.voices = voices;
+            this.center = center;
+            this.missValue = missValue;
+        }
+    }
+
+    private final AtomicReference<Snapshot> parameters;
+
+    //everything below belongs to the producer thread
+    private final OscillatorBank bank;
+    private Snapshot applied;
+
+    /**
+     *  @param shape   the main voice's shape, playing at one turn per second with no rotation
+     *  @param center  the rays start at (center, center), half the side of the drawing region
+     */
+    public WaveEngine(RadialShape shape, double center) {
+        this(shape, center, ForkJoinPool.commonPool());
+    }
+
+    /**
+     *  @param pool  where big stacks of voices get summed, see OscillatorBank
+     */
+    public WaveEngine(RadialShape shape, double center, ForkJoinPool pool) {
+        parameters = new AtomicReference<Snapshot>(new Snapshot(new Voice[] {new Voice(shape, 0, 1, 1)}, center, 0));
+        bank = new OscillatorBank(pool);
+    }
+
+    /**
+     *  Writes the next count samples to out, starting at offset, as if sampled sampleRate times a second.
+     *  Call this from one thread only.
+     */
+    public void fill(double[] out, int offset, int count, double sampleRate) {
+        bank.awaitPrepared();
+        Snapshot snapshot = apply();
+        if (count <= 0) return;
+
+        bank.advance(snapshot.center, 1/sampleRate, out, offset, count);
+        scale(snapshot, out, offset, count);
+    }
+
+    /**
+     *  Like fill(), but never waits for the pool. Writes as many of the next count samples as are ready and returns
+     *  how many that was: all of them for a stack small enough to be summed right here, otherwise whatever the
+     *  block from the last prepare() has, or none if it isn't done yet or the stack, center or sample rate changed
+     *  since. Call this from the same thread as fill(), and prepare() whatever is still wanted afterwards.
+     */
+    public int fillReady(double[] out, int offset, int count, double sampleRate) {
+        if (count <= 0 || bank.isBusy()) return 0;
+        Snapshot snapshot = apply();
+
+        int filled = bank.advanceReady(1, snapshot.center, 1/sampleRate, out, offset, count);
+        scale(snapshot, out, offset, filled);
+        return filled;
+    }
+
+    /**
+     *  Starts working out the next count samples of every voice but the main one in the background, for
+     *  fillReady() to pick up. Does nothing if a block is already being worked out, or if the stack is small enough
+     *  for fillReady() to do it straight away. Call this from the same thread as fill().
+     */
+    public void prepare(int count, double sampleRate) {
+        Snapshot snapshot = apply();
+        bank.prepare(1, snapshot.center, 1/sampleRate, count);
+    }
+
+    private static void scale(Snapshot snapshot, double[] out, int offset, int count) {
+        for (int i = offset; i < offset + count; i++) {
+            double value = out[i];
+            out[i] = value == value ? value/snapshot.center : snapshot.missValue;
+        }
+    }
+
+    /**
+     *  Returns the sample the given number of samples away from the last one filled, without moving the rays. The
+     *  offset can be a fraction, so -0.5 is halfway between the last two samples. Call this from the same thread as
+     *  fill(), after it. Waits for the block from prepare() if it's still being worked out.
+     */
+    public double peek(double offset, double sampleRate) {
+        bank.awaitPrepared();
+        Snapshot snapshot = applied != null ? applied : apply();
+        double value = bank.heightAt(snapshot.center, 1/sampleRate, offset);
+        return value == value ? value/snapshot.center : snapshot.missValue;
+    }
+
+    /**
+     *  Moves the rays forward by count samples without working any of them out. Call this from the same thread as
+     *  fill().
+     */
+    public void skip(int count, double sampleRate) {
+        apply();
+        bank.skip(1/sampleRate, count);
+    }
+
+    /**
+     *  Returns where the given voice's ray is pointing after the last fill() or skip(), in [0, 2*pi). Call this
+     *  from the same thread as fill().
+     */
+    public double getAngle(int voice) {
+        return voice < bank.size() ? bank.get(voice).getAngle() : 0;
+    }
+
+    public Voice getVoice(int i) {
+        return parameters.get().voices[i];
+    }
+
+    public int getVoiceCount() {
+        return parameters.get().voices.length;
+    }
+
+    /**
+     *  Returns true if none of the voices has anything for its ray to hit.
+     */
+    public boolean isEmpty() {
+        for (Voice voice : parameters.get().voices) {
+            if (!voice.shape.isEmpty()) return false;
+        }
+        return true;
+    }
+
+    //the setters check first so a UI that sets everything again every tick doesn't publish (or allocate) anything
+    //when nothing changed
+
+    public void setShape(RadialShape shape) {
+        if (parameters.get().voices[0].shape != shape) {
+            updateMain(voice -> voice.shape == shape ? voice : voice.withShape(shape));
+        }
+    }
+
+    public void setRotation(double rotation) {
+        if (parameters.get().voices[0].rotation != rotation) {
+            updateMain(voice -> voice.rotation == rotation ? voice : voice.withRotation(rotation));
+        }
+    }
+
+    public void setFrequency(double frequency) {
+        if (parameters.get().voices[0].frequency != frequency) {
+            updateMain(voice -> voice.frequency == frequency ? voice : voice.withFrequency(frequency));
+        }
+    }
+
+    public void setAmplitude(double amplitude) {
+        if (parameters.get().voices[0].amplitude != amplitude) {
+            updateMain(voice -> voice.amplitude == amplitude ? voice : voice.withAmplitude(amplitude));
+        }
+    }
+
+    /**
+     *  Replaces the main voice, leaving any others alone.
+     */
+    public void setMain(Voice voice) {
+        updateMain(main -> voice);
+    }
+
+    /**
+     *  Adds a voice on top of the others. It starts with its ray wherever the main voice's is.
+     */
+    public void addVoice(Voice voice) {
+        update(current -> {
+            Voice[] voices = Arrays.copyOf(current.voices, current.voices.length + 1);
+            voices[current.voices.length] = voice;
+            return new Snapshot(voices, current.center, current.missValue);
+        });
+    }
+
+    /**
+     *  Removes every voice but the main one.
+     */
+    public void clearVoices() {
+        update(current -> current.voices.length == 1 ? current
+                          : new Snapshot(new Voice[] {current.voices[0]}, current.center, current.missValue));
+    }
+
+    /**
+     *  Moves the rays' starting point to (center, center), which also changes what the samples are divided by.
+     */
+    public void setCenter(double center) {
+        if (parameters.get().center != center) {
+            update(current -> current.center == center ? current
+                              : new Snapshot(current.voices, center, current.missValue));
+        }
+    }
+
+    /**
+     *  Sets what a sample comes out as when every ray misses its shape. 0 by default, NaN lets misses be told
+     *  apart from a wave that just happens to be at 0.
+     */
+    public void setMissValue(double missValue) {
+        if (Double.compare(parameters.get().missValue, missValue) != 0) {
+            update(current -> new Snapshot(current.voices, current.center, missValue));
+        }
+    }
+
+    private void updateMain(UnaryOperator<Voice> change) {
+        update(current -> {
+            Voice main = change.apply(current.voices[0]);
+            if (main == current.voices[0]) return current;
+            Voice[] voices = current.voices.clone();
+            voices[0] = main;
+            return new Snapshot(voices, current.center, current.missValue);
+        });
+    }
+
+    //lock-free: if another thread got a change in first, the change is redone on top of theirs
+    private void update(UnaryOperator<Snapshot> change) {
+        Snapshot current, next;
+        do {
+            current = parameters.get();
+            next = change.apply(current);
+        } while (next != current && !parameters.compareAndSet(current, next));
+    }
+
+    /**
+     *  Brings the producer's oscillators up to date with the newest snapshot. Only allocates when voices were
+     *  added since the last time. Nothing is touched while the bank is summing a block in the background; the
+     *  changes are picked up the next time instead.
+     */
+    private Snapshot apply() {
+        Snapshot snapshot = parameters.get();
+        if (snapshot == applied || bank.isBusy()) return applied;
+
+        Voice[] voices = snapshot.voices;
+        while (bank.size() > voices.length) {
+            bank.remove(bank.get(bank.size() - 1));
+        }
+        while (bank.size() < voices.length) {
+            Oscillator oscillator = new Oscillator(voices[bank.size()].shape, 0, 0, 0);
+            if (bank.size() > 0) oscillator.setAngle(bank.get(0).getAngle());
+            bank.add(oscillator);
+        }
+        for (int i = 0; i < voices.length; i++) {
+            Oscillator oscillator = bank.get(i);
+            oscillator.setShape(voices[i].shape);
+            oscillator.setRotation(voices[i].rotation);
+            oscillator.setFrequency(voices[i].frequency);
+            oscillator.setAmplitude(voices[i].amplitude);
+        }
+
+        applied = snapshot;
+        return snapshot;
+    }
+}
@@ -0,0 +1,102 @@
+package customizablesine;
+
+/**
+ *  Takes wave samples from a WaveEngine and puts them on a WaveTrace, one per simulation step, with the trace's y
+ *  coordinates (see traceY).
+ *
+ *  With subsamples above 1, there are extra samples between the ray's positions at the two ends of each step.
+ *  Evenly spaced, that's just running the engine that many times faster. Adaptive, only the steps where the wave
+ *  doesn't follow a straight line (like near a corner of the shape) get extra samples, by halving the gap until it
+ *  does to within the tolerance, up to subsamples per step.
+ */
+public class WaveSampler {
+    private final WaveEngine engine;
+    private final WaveTrace trace;
+    private final int subsamples;
+    private final boolean adaptive;
+    private final double tolerance;
+
+    private double[] samples = new double[4];
+    private double waveTime;    //when the newest wave sample was taken, in steps
+
+    /**
+     *  @param subsamples  samples per step
+     *  @param adaptive    only put extra samples where the wave needs them
+     *  @param tolerance   how far (in pixels) the adaptive trace may stray from the wave between samples
+     */
+    public WaveSampler(WaveEngine engine, WaveTrace trace, int subsamples, boolean adaptive, double tolerance) {
+        this.engine = engine;
+        this.trace = trace;
+        this.subsamples = Math.max(1, subsamples);
+        this.adaptive = adaptive;
+        this.tolerance = tolerance;
+    }
+
+    public int getSubsamples() {
+        return subsamples;
+    }
+
+    /**
+     *  Adds up to the given number of steps' worth of samples to the trace, as many as the engine has ready, and
+     *  prepares the rest in the background (see WaveEngine.fillReady).
+     *
+     *  @param center  the middle of the drawing region, which is where a sample of 0 goes
+     *  @return        how many steps were added
+     */
+    public int sample(int steps, double sampleRate, double center) {
+        if (adaptive) {
+            //one sample per step, plus however many in between it takes to follow the wave within the tolerance
+            int depth = 32 - Integer.numberOfLeadingZeros(subsamples - 1);
+            if (samples.length < steps) samples = new double[steps];
+            int filled = engine.fillReady(samples, 0, steps, sampleRate);
+            //peek() offsets count back from the newest sample just filled
+            double newest = waveTime + filled;
+            for (int i = 0; i < filled; i++) {
+                double y = traceY(samples[i], center);
+                //don't fill in across a clear or a pause for drawing
+                if (depth > 0 && trace.size() > 0 && trace.getTime(0) == waveTime) {
+                    subdivide(center, sampleRate, newest, i - filled, trace.get(0), i - filled + 1, y, depth);
+                }
+                waveTime++;
+                trace.push(waveTime, y);
+            }
+            engine.prepare(steps - filled, sampleRate);
+            return filled;
+        }
+
+        //evenly spaced samples, which is just running the engine that many times faster
+        int count = steps*subsamples;
+        if (samples.length < count) samples = new double[count];
+        int filled = engine.fillReady(samples, 0, count, sampleRate*subsamples);
+        for (int i = 0; i < filled; i++) {
+            trace.push(waveTime + (double) (i+1)/subsamples, traceY(samples[i], center));
+        }
+        waveTime += filled/subsamples;
+        engine.prepare((steps - filled/subsamples)*subsamples, sampleRate*subsamples);
+        return filled/subsamples;
+    }
+
+    /**
+     *  Samples are measured upwards, but in swing coordinates increasing y means going down. A miss goes to -1,
+     *  off the top.
+     */
+    public static double traceY(double sample, double center) {
+        return sample == sample ? center - sample*center : -1;
+    }
+
+    /**
+     *  Adds samples between two neighbouring ones wherever the wave doesn't follow a straight line between them,
+     *  halving the gap up to depth times. Times are in samples relative to the newest one just filled, which is at
+     *  the given wave time; t1's sample will be pushed after these.
+     */
+    private void subdivide(double center, double sampleRate, double newest, double t0, double y0, double t1, double y1,
+                           int depth) {
+        double t = (t0 + t1)/2;
+        double y = traceY(engine.peek(t, sampleRate), center);
+        if (Math.abs(y - (y0 + y1)/2) <= tolerance) return;
+
+        if (depth > 1) subdivide(center, sampleRate, newest, t0, y0, t, y, depth - 1);
+        trace.push(newest + t, y);
+        if (depth > 1) subdivide(center, sampleRate, newest, t, y, t1, y1, depth - 1);
+    }
+}
@@ -0,0 +1,123 @@
+package customizablesine;
+
+import java.awt.Graphics;
+
+/**
+ *  The scrolling wave, kept as a fixed-size ring of y values rather than a list of line segments.
+ *
+ *  Every new sample overwrites the oldest one, so scrolling the trace is just moving the head index. Each sample
+ *  also has the time it was taken at, counted in simulation steps, and its x is worked out when drawing from how
+ *  long before the newest sample it was taken. Normally that's one step per sample, but supersampling puts extra
+ *  samples at fractions of a step in between.
+ */
+public class WaveTrace {
+    private double[] samples = new double[0];
+    private double[] times = new double[0];
+    private int head;   //where the next sample goes
+    private int count;
+    private long pushCount, clearCount;
+
+    /**
+     *  Makes sure the ring can hold the given number of samples, keeping as many of the newest ones as fit. Does
+     *  nothing if the capacity is already right, so it's cheap to call every frame.
+     */
+    public void setCapacity(int capacity) {
+        capacity = Math.max(1, capacity);
+        if (capacity == samples.length) return;
+
+        double[] resized = new double[capacity], resizedTimes = new double[capacity];
+        int kept = Math.min(count, capacity);
+        for (int i = 0; i < kept; i++) {
+            resized[kept - 1 - i] = get(i);
+            resizedTimes[kept - 1 - i] = getTime(i);
+        }
+        samples = resized;
+        times = resizedTimes;
+        count = kept;
+        head = kept % capacity;
+    }
+
+    public int capacity() {
+        return samples.length;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public void clear() {
+        count = 0;
+        head = 0;
+        clearCount++;
+    }
+
+    /**
+     *  Adds a sample taken one step after the newest one.
+     */
+    public void push(double y) {
+        push(count == 0 ? 0 : getTime(0) + 1, y);
+    }
+
+    /**
+     *  Adds a sample taken at the given time, in steps. Times have to go up from one sample to the next.
+     */
+    public void push(double time, double y) {
+        if (samples.length == 0) return;
+        samples[head] = y;
+        times[head] = time;
+        head = head + 1 == samples.length ? 0 : head + 1;
+        if (count < samples.length) count++;
+        pushCount++;
+    }
+
+    /**
+     *  Returns how many samples have ever been pushed. Along with getClearCount(), this lets anything that draws
+     *  the trace incrementally work out what's new since it last looked.
+     */
+    public long getPushCount() {
+        return pushCount;
+    }
+
+    public long getClearCount() {
+        return clearCount;
+    }
+
+    /**
+     *  Returns the sample taken the given number of pushes ago (0 is the newest).
+     */
+    public double get(int age) {
+        int i = head - 1 - age;
+        return samples[i < 0 ? i + samples.length : i];
+    }
+
+    /**
+     *  Returns the time, in steps, of the sample taken the given number of pushes ago.
+     */
+    public double getTime(int age) {
+        int i = head - 1 - age;
+        return times[i < 0 ? i + times.length : i];
+    }
+
+    /**
+     *  Returns how far right of the newest sample the given one goes, at spacing pixels per step.
+     */
+    public int offset(int age, int spacing) {
+        return (int) Math.round((getTime(0) - getTime(age))*spacing);
+    }
+
+    /**
+     *  Draws the trace as a connected line starting at x and moving spacing pixels right for every step older a
+     *  sample is.
+     */
+    public void draw(Graphics g, int x, int spacing) {
+        if (count == 0) return;
+
+        double previous = get(0);
+        if (count == 1) g.drawLine(x, (int) previous, x + spacing, (int) previous);
+        for (int age = 1; age < count; age++) {
+            double y = get(age);
+            g.drawLine(x + offset(age-1, spacing), (int) previous, x + offset(age, spacing), (int) y);
+            previous = y;
+        }
+    }
+}
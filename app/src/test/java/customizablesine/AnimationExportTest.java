@@ -0,0 +1,43 @@
+package customizablesine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnimationExportTest {
+
+    @Test
+    void writesOnePngPerFrame(@TempDir Path dir) throws IOException {
+        Path out = dir.resolve("frames");
+        AnimationExport.export(new String[] {"--preset", "polygon", "--sides", "3", "--duration", "0.1", "--fps", "30",
+                                             "--width", "60", "--height", "20", "--threads", "2", "--out", out.toString()});
+        assertEquals(3, out.toFile().list().length);
+    }
+
+    @Test
+    void rejectsBadOptions(@TempDir Path dir) {
+        String out = dir.resolve("frames").toString();
+        assertThrows(IllegalArgumentException.class,
+                     () -> AnimationExport.export(new String[] {"--preset", "polygon", "--sides", "0", "--out", out}));
+        assertThrows(IllegalArgumentException.class,
+                     () -> AnimationExport.export(new String[] {"--preset", "polygon", "--sides", "-4", "--out", out}));
+        assertThrows(IllegalArgumentException.class,
+                     () -> AnimationExport.export(new String[] {"--sides", "five", "--out", out}));
+        assertThrows(IllegalArgumentException.class, () -> AnimationExport.export(new String[] {"--fps", "0", "--out", out}));
+        assertThrows(IllegalArgumentException.class, () -> AnimationExport.export(new String[] {"--fps", "NaN", "--out", out}));
+        assertThrows(IllegalArgumentException.class,
+                     () -> AnimationExport.export(new String[] {"--duration", "-1", "--out", out}));
+        assertThrows(IllegalArgumentException.class,
+                     () -> AnimationExport.export(new String[] {"--duration", "0.001", "--out", out}));
+        assertThrows(IllegalArgumentException.class, () -> AnimationExport.export(new String[] {"--width", "100", "--out", out}));
+        assertThrows(IllegalArgumentException.class, () -> AnimationExport.export(new String[] {"--format", "mp4"}));
+        assertThrows(IllegalArgumentException.class, () -> AnimationExport.export(new String[] {"--fps"}));
+        //and nothing got written
+        assertFalse(Files.exists(dir.resolve("frames")));
+    }
+}
@@ -0,0 +1,78 @@
+package customizablesine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchExportTest {
+
+    private static String[] options(Path out, String... args) {
+        String[] all = Arrays.copyOf(args, args.length + 6);
+        all[args.length] = "--out";
+        all[args.length + 1] = out.toString();
+        all[args.length + 2] = "--duration";
+        all[args.length + 3] = "0.01";
+        all[args.length + 4] = "--rate";
+        all[args.length + 5] = "1000";
+        return all;
+    }
+
+    @Test
+    void writesOneFilePerJob(@TempDir Path out) throws IOException {
+        BatchExport.export(options(out, "--presets", "circle,polygon", "--sides", "3-4", "--rotations", "0,12.5"));
+        String[] files = out.toFile().list();
+        Arrays.sort(files);
+        assertArrayEquals(new String[] {"circle_r0_f1.csv", "circle_r12.50_f1.csv", "polygon3_r0_f1.csv",
+                                        "polygon3_r12.50_f1.csv", "polygon4_r0_f1.csv", "polygon4_r12.50_f1.csv"}, files);
+        //a header and one line per sample
+        assertEquals(11, Files.readAllLines(out.resolve("polygon3_r0_f1.csv")).size());
+    }
+
+    @Test
+    void rejectsJobsThatWouldWriteTheSameFile(@TempDir Path dir) throws IOException {
+        Path out = dir.resolve("out");
+        Path circle = dir.resolve("circle.txt");
+        Files.write(circle, "0 0 10 10\n".getBytes(StandardCharsets.UTF_8));
+        Path other = Files.createDirectories(dir.resolve("other")).resolve("circle.txt");
+        Files.write(other, "0 0 10 10\n".getBytes(StandardCharsets.UTF_8));
+
+        //a file named like a preset, two files with the same name, and values that print the same
+        assertThrows(IllegalArgumentException.class,
+                     () -> BatchExport.export(options(out, "--presets", "circle", "--shape", circle.toString())));
+        assertThrows(IllegalArgumentException.class,
+                     () -> BatchExport.export(options(out, "--shape", circle.toString(), "--shape", other.toString())));
+        assertThrows(IllegalArgumentException.class,
+                     () -> BatchExport.export(options(out, "--presets", "square", "--rotations", "0.001,0.002")));
+        assertThrows(IllegalArgumentException.class,
+                     () -> BatchExport.export(options(out, "--presets", "polygon", "--sides", "4,4")));
+        //and nothing got written
+        assertFalse(Files.exists(out));
+    }
+
+    @Test
+    void rejectsBadOptions(@TempDir Path out) {
+        assertThrows(IllegalArgumentException.class,
+                     () -> BatchExport.export(options(out, "--presets", "polygon", "--sides", "5,5.5")));
+        assertThrows(IllegalArgumentException.class,
+                     () -> BatchExport.export(options(out, "--presets", "polygon", "--sides", "2")));
+        assertThrows(IllegalArgumentException.class, () -> BatchExport.export(options(out, "--presets", "hexagon")));
+        assertThrows(IllegalArgumentException.class, () -> BatchExport.export(options(out, "--format", "mp3")));
+        assertThrows(IllegalArgumentException.class, () -> BatchExport.export(options(out, "--bogus", "1")));
+        assertThrows(IllegalArgumentException.class, () -> BatchExport.export(new String[] {"--rate"}));
+        assertThrows(IllegalArgumentException.class, () -> BatchExport.parseList("0-10:0"));
+    }
+
+    @Test
+    void parsesListsAndRanges() {
+        assertEquals(Arrays.asList(3.0, 4.0, 5.0, 8.0), BatchExport.parseList("3-5, 8"));
+        assertEquals(Arrays.asList(-1.0, 0.0, 1.0), BatchExport.parseList("-1-1"));
+        assertEquals(41, BatchExport.parseList("0-4:0.1").size());
+    }
+}
@@ -0,0 +1,90 @@
+package customizablesine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FFTTest {
+
+    private static double magnitude(double[] re, double[] im, int k) {
+        return Math.hypot(re[k], im[k]);
+    }
+
+    @Test
+    void pureSineLandsInOneBin() {
+        int n = 256;
+        double[] re = new double[n], im = new double[n];
+        for (int i = 0; i < n; i++) {
+            re[i] = Math.sin(2*Math.PI*5*i/n);
+        }
+        new FFT(n).transform(re, im);
+
+        //sin is (e^ix - e^-ix)/2i, so bin 5 gets -n/2 imaginary and its mirror image gets +n/2
+        assertEquals(0, re[5], 1e-9);
+        assertEquals(-n/2.0, im[5], 1e-9);
+        assertEquals(n/2.0, im[n - 5], 1e-9);
+        for (int k = 0; k < n; k++) {
+            if (k != 5 && k != n - 5) assertEquals(0, magnitude(re, im, k), 1e-9, "bin " + k);
+        }
+    }
+
+    @Test
+    void squareWaveHasOnlyOddHarmonics() {
+        int n = 1024, period = 64;
+        double[] re = new double[n], im = new double[n];
+        for (int i = 0; i < n; i++) {
+            re[i] = i % period < period/2 ? 1 : -1;
+        }
+        new FFT(n).transform(re, im);
+
+        int fundamental = n/period;
+        double first = magnitude(re, im, fundamental);
+        assertEquals(0, magnitude(re, im, 0), 1e-9);
+        for (int harmonic = 1; harmonic*fundamental < n/2; harmonic++) {
+            double m = magnitude(re, im, harmonic*fundamental);
+            if (harmonic % 2 == 0) {
+                assertEquals(0, m, 1e-9, "harmonic " + harmonic);
+            }
+            else {
+                //sampled, the harmonics fall off as 1/sin(pi*h/period) instead of exactly 1/h
+                double expected = first*Math.sin(Math.PI/period)/Math.sin(Math.PI*harmonic/period);
+                assertEquals(expected, m, 1e-6*first, "harmonic " + harmonic);
+            }
+        }
+        //and nothing between the harmonics
+        for (int k = 1; k < n/2; k++) {
+            if (k % fundamental != 0) assertEquals(0, magnitude(re, im, k), 1e-9, "bin " + k);
+        }
+    }
+
+    @Test
+    void matchesTheDefinition() {
+        int n = 64;
+        Random random = new Random(3);
+        double[] re = new double[n], im = new double[n], xr = new double[n], xi = new double[n];
+        for (int i = 0; i < n; i++) {
+            xr[i] = re[i] = random.nextGaussian();
+            xi[i] = im[i] = random.nextGaussian();
+        }
+        new FFT(n).transform(re, im);
+
+        for (int k = 0; k < n; k++) {
+            double sumRe = 0, sumIm = 0;
+            for (int i = 0; i < n; i++) {
+                double a = -2*Math.PI*k*i/n;
+                sumRe += xr[i]*Math.cos(a) - xi[i]*Math.sin(a);
+                sumIm += xr[i]*Math.sin(a) + xi[i]*Math.cos(a);
+            }
+            assertEquals(sumRe, re[k], 1e-9);
+            assertEquals(sumIm, im[k], 1e-9);
+        }
+    }
+
+    @Test
+    void onlyPowersOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new FFT(48));
+        assertThrows(IllegalArgumentException.class, () -> new FFT(1));
+    }
+}
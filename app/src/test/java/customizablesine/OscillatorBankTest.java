@@ -0,0 +1,140 @@
+package customizablesine;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OscillatorBankTest {
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void startPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void stopPool() {
+        pool.shutdown();
+    }
+
+    private static OscillatorBank stack(int oscillators) {
+        OscillatorBank bank = new OscillatorBank(pool);
+        for (int i = 0; i < oscillators; i++) {
+            RadialShape shape = new TransformedShape(ShapePresets.polygon(540, 3 + i%12));
+            shape.translate(i%7, i%5);
+            bank.add(new Oscillator(shape, 0.1*i, i + 1, 1.0/(i + 1)));
+        }
+        return bank;
+    }
+
+    //what advance() has to come out with, summed one oscillator at a time without moving anything
+    private static double[] expected(OscillatorBank bank, double stepSeconds, int count) {
+        double[] heights = new double[count];
+        for (int i = 0; i < count; i++) {
+            heights[i] = bank.heightAt(270, stepSeconds, i + 1);
+        }
+        return heights;
+    }
+
+    @Test
+    void splitBlocksMatchSummingInOrder() {
+        OscillatorBank bank = stack(64);
+        //blocks of different sizes one after the other, so the same tasks and scratch get reused for smaller ones
+        for (int count : new int[] {512, 512, 40, 1000, 3, 1000, 200}) {
+            double[] expected = expected(bank, 0.0007, count);
+            double[] out = new double[count + 2];
+            out[0] = out[count + 1] = 42;
+            bank.advance(270, 0.0007, out, 1, count);
+            assertEquals(42, out[0]);
+            assertEquals(42, out[count + 1]);
+            for (int i = 0; i < count; i++) {
+                assertEquals(expected[i], out[i + 1], 1e-9, "sample " + i + " of " + count);
+            }
+        }
+    }
+
+    @Test
+    void changingTheStackBetweenBlocks() {
+        OscillatorBank bank = stack(40);
+        double[] out = new double[300];
+        bank.advance(270, 0.001, out, 0, 300);
+
+        Oscillator extra = new Oscillator(ShapePresets.polygon(540, 5), 0, 3, 0.5);
+        bank.add(extra);
+        double[] expected = expected(bank, 0.001, 300);
+        bank.advance(270, 0.001, out, 0, 300);
+        assertArrayEquals(expected, out, 1e-9);
+
+        bank.remove(bank.get(0));
+        bank.remove(bank.get(0));
+        expected = expected(bank, 0.001, 300);
+        bank.advance(270, 0.001, out, 0, 300);
+        assertArrayEquals(expected, out, 1e-9);
+    }
+
+    @Test
+    void backgroundBlocksMatchAdvance() {
+        OscillatorBank expected = stack(64), bank = stack(64);
+        double[] wanted = new double[300], out = new double[500];
+
+        assertEquals(0, bank.advanceReady(1, 270, 0.001, out, 0, 500));
+        bank.prepare(1, 270, 0.001, 300);
+        //the first oscillator is summed when the block is picked up, so it can still be changed meanwhile
+        bank.get(0).setFrequency(7);
+        expected.get(0).setFrequency(7);
+        expected.advance(270, 0.001, wanted, 0, 300);
+
+        bank.awaitPrepared();
+        assertFalse(bank.isBusy());
+        assertEquals(300, bank.advanceReady(1, 270, 0.001, out, 0, 500));
+        for (int i = 0; i < 300; i++) {
+            assertEquals(wanted[i], out[i], 1e-9, "sample " + i);
+        }
+        for (int o = 0; o < bank.size(); o++) {
+            assertEquals(expected.get(o).getAngle(), bank.get(o).getAngle(), 1e-9);
+        }
+    }
+
+    @Test
+    void backgroundBlockIsThrownAwayWhenThingsChange() {
+        OscillatorBank bank = stack(64);
+        double[] out = new double[300];
+
+        bank.prepare(1, 270, 0.001, 300);
+        bank.skip(0.001, 10);
+        bank.awaitPrepared();
+        assertEquals(0, bank.advanceReady(1, 270, 0.001, out, 0, 300));
+
+        bank.prepare(1, 270, 0.001, 300);
+        bank.awaitPrepared();
+        assertEquals(0, bank.advanceReady(1, 200, 0.001, out, 0, 300));
+
+        bank.prepare(1, 270, 0.001, 300);
+        bank.add(new Oscillator(ShapePresets.polygon(540, 5), 0, 3, 0.5));
+        bank.awaitPrepared();
+        assertEquals(0, bank.advanceReady(1, 270, 0.001, out, 0, 300));
+
+        //too little to be worth splitting up is just summed right away
+        double[] expected = expected(bank, 0.001, 2);
+        assertEquals(2, bank.advanceReady(1, 270, 0.001, out, 0, 2));
+        assertEquals(expected[0], out[0], 1e-9);
+        assertEquals(expected[1], out[1], 1e-9);
+    }
+
+    @Test
+    void missesStayNaN() {
+        OscillatorBank bank = new OscillatorBank(pool);
+        for (int i = 0; i < 30; i++) {
+            bank.add(new Oscillator(new SegmentShape(new SegmentBuffer(), 64), 0, 1, 1));
+        }
+        double[] out = new double[500];
+        bank.advance(270, 0.001, out, 0, 500);
+        for (double value : out) {
+            assertTrue(value != value);
+        }
+    }
+}
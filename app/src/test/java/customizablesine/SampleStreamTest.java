@@ -0,0 +1,157 @@
+package customizablesine;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SampleStreamTest {
+    private static final int BATCH = 8;
+    private static final double RATE = 1000;
+
+    private static final Runnable NOTHING = new Runnable() {
+        @Override
+        public void run() {
+        }
+    };
+
+    //a circle of radius 100 around (200, 200), which the stream's ray goes around from its center
+    private static SampleStream stream(DatagramChannel listener, boolean osc) throws IOException {
+        SampleStream stream = new SampleStream((InetSocketAddress) listener.getLocalAddress(), RATE, BATCH, osc, NOTHING);
+        stream.setShape(ShapePresets.circle(400), 200, 0);
+        stream.setAmplitude(0.5);
+        return stream;
+    }
+
+    private static DatagramChannel listen() throws IOException {
+        DatagramChannel channel = DatagramChannel.open();
+        channel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        channel.configureBlocking(false);
+        return channel;
+    }
+
+    private static ByteBuffer receive(DatagramChannel channel, Selector selector) throws IOException {
+        ByteBuffer packet = ByteBuffer.allocate(SampleStream.MAX_DATAGRAM_BYTES);
+        long deadline = System.nanoTime() + 5000000000L;
+        while (channel.receive(packet) == null) {
+            assertTrue(System.nanoTime() < deadline, "nothing arrived");
+            selector.select(100);
+            selector.selectedKeys().clear();
+        }
+        packet.flip();
+        return packet;
+    }
+
+    private static void assertSample(ByteBuffer packet, long index) {
+        double angle = 2*Math.PI*index/RATE;
+        assertEquals(angle, packet.getFloat(), 1e-5);
+        assertEquals(100, packet.getFloat(), 1e-3);
+        assertEquals(200 + 100*Math.cos(angle), packet.getFloat(), 1e-3);
+        assertEquals(200 - 100*Math.sin(angle), packet.getFloat(), 1e-3);
+        assertEquals(0.5*100*Math.sin(angle)/200, packet.getFloat(), 1e-5);
+    }
+
+    @Test
+    void rawBatches() throws IOException {
+        DatagramChannel listener = listen();
+        Selector selector = Selector.open();
+        listener.register(selector, SelectionKey.OP_READ);
+        SampleStream stream = stream(listener, false);
+        stream.start();
+        try {
+            for (int batch = 0; batch < 3; batch++) {
+                ByteBuffer packet = receive(listener, selector);
+                assertEquals(16 + 20*BATCH, packet.remaining());
+                assertEquals(batch, packet.getInt());
+                assertEquals(BATCH, packet.getInt());
+                assertEquals((long) batch*BATCH, packet.getLong());
+                for (int i = 0; i < BATCH; i++) {
+                    assertSample(packet, (long) batch*BATCH + i);
+                }
+                assertFalse(packet.hasRemaining());
+            }
+        }
+        finally {
+            stream.stop();
+            selector.close();
+            listener.close();
+        }
+        assertFalse(stream.isRunning());
+        assertNull(stream.getError());
+    }
+
+    @Test
+    void oscBundles() throws IOException {
+        DatagramChannel listener = listen();
+        Selector selector = Selector.open();
+        listener.register(selector, SelectionKey.OP_READ);
+        SampleStream stream = stream(listener, true);
+        stream.start();
+        try {
+            ByteBuffer packet = receive(listener, selector);
+            byte[] bundle = new byte[8];
+            packet.get(bundle);
+            assertArrayEquals("#bundle\0".getBytes(StandardCharsets.US_ASCII), bundle);
+            assertEquals(1, packet.getLong());
+
+            for (int i = 0; i < BATCH; i++) {
+                //"/sine/sample" is 12 characters, so its terminating null takes it to 16; ",ifffff" fits in 8
+                int size = packet.getInt();
+                assertEquals(16 + 8 + 4 + 5*4, size);
+                assertEquals(0, size % 4);
+                byte[] address = new byte[16], types = new byte[8];
+                packet.get(address);
+                packet.get(types);
+                assertArrayEquals("/sine/sample\0\0\0\0".getBytes(StandardCharsets.US_ASCII), address);
+                assertArrayEquals(",ifffff\0".getBytes(StandardCharsets.US_ASCII), types);
+                assertEquals(i, packet.getInt());
+                assertSample(packet, i);
+            }
+            assertFalse(packet.hasRemaining());
+        }
+        finally {
+            stream.stop();
+            selector.close();
+            listener.close();
+        }
+    }
+
+    @Test
+    void bigEndianOnTheWire() throws IOException {
+        DatagramChannel listener = listen();
+        Selector selector = Selector.open();
+        listener.register(selector, SelectionKey.OP_READ);
+        SampleStream stream = stream(listener, false);
+        stream.start();
+        try {
+            ByteBuffer packet = receive(listener, selector);
+            //the count, read a byte at a time, then the radius of the first sample (100.0f is 0x42c80000)
+            assertArrayEquals(new byte[] {0, 0, 0, BATCH}, new byte[] {packet.get(4), packet.get(5), packet.get(6), packet.get(7)});
+            assertArrayEquals(new byte[] {0x42, (byte) 0xc8, 0, 0},
+                              new byte[] {packet.get(20), packet.get(21), packet.get(22), packet.get(23)});
+        }
+        finally {
+            stream.stop();
+            selector.close();
+            listener.close();
+        }
+    }
+
+    @Test
+    void rejectsBatchesThatDontFit() {
+        InetSocketAddress target = new InetSocketAddress(InetAddress.getLoopbackAddress(), 9);
+        assertThrows(IllegalArgumentException.class, () -> new SampleStream(target, RATE, 0, false, NOTHING));
+        assertThrows(IllegalArgumentException.class, () -> new SampleStream(target, RATE, 4000, false, NOTHING));
+        assertThrows(IllegalArgumentException.class, () -> new SampleStream(target, RATE, 2000, true, NOTHING));
+        assertThrows(IllegalArgumentException.class, () -> new SampleStream(target, 0, 32, false, NOTHING));
+        new SampleStream(target, RATE, 3000, false, NOTHING);
+    }
+}
@@ -0,0 +1,95 @@
+package customizablesine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SegmentGridTest {
+
+    //the nearest hit found by testing every segment, what the grid has to agree with
+    private static double bruteForce(SegmentBuffer lines, double cx, double cy, double angle) {
+        double dx = Math.cos(angle), dy = Math.sin(angle);
+        double nearest = Double.NaN;
+        for (int i = 0; i < lines.size(); i++) {
+            double ex = lines.x2(i) - lines.x1(i), ey = lines.y2(i) - lines.y1(i);
+            double denom = dx*ey - dy*ex;
+            if (denom == 0) continue;
+            double wx = lines.x1(i) - cx, wy = lines.y1(i) - cy;
+            double t = (wx*ey - wy*ex) / denom;
+            double u = (wx*dy - wy*dx) / denom;
+            if (t >= 0 && u >= 0 && u <= 1 && !(t >= nearest)) nearest = t;
+        }
+        return nearest;
+    }
+
+    private static void assertSameHit(double expected, double actual, String where) {
+        if (expected != expected) assertTrue(actual != actual, where + ": expected a miss, got " + actual);
+        else assertEquals(expected, actual, 1e-9, where);
+    }
+
+    @Test
+    void matchesTestingEverySegment() {
+        Random random = new Random(7);
+        SegmentBuffer lines = new SegmentBuffer();
+        //short strokes on whole pixels, so plenty of ends land right on cell edges, and a few long ones across
+        for (int i = 0; i < 3000; i++) {
+            int x = random.nextInt(540), y = random.nextInt(540);
+            lines.add(x, y, x + random.nextInt(7) - 3, y + random.nextInt(7) - 3);
+        }
+        for (int i = 0; i < 20; i++) {
+            lines.add(random.nextInt(540), random.nextInt(540), random.nextInt(540), random.nextInt(540));
+        }
+
+        SegmentGrid grid = new SegmentGrid();
+        grid.build(lines);
+        for (int q = 0; q < 5000; q++) {
+            //origins inside and outside the drawing, on whole pixels or not, and rays along the axes
+            double cx = random.nextBoolean() ? random.nextInt(700) - 80 : random.nextDouble()*700 - 80;
+            double cy = random.nextBoolean() ? random.nextInt(700) - 80 : random.nextDouble()*700 - 80;
+            double angle = random.nextInt(4) == 0 ? Math.PI/2*random.nextInt(4) : random.nextDouble()*2*Math.PI;
+            assertSameHit(bruteForce(lines, cx, cy, angle), grid.castRay(lines, cx, cy, angle, Double.POSITIVE_INFINITY),
+                          "ray from " + cx + ", " + cy + " at " + angle);
+        }
+    }
+
+    @Test
+    void emptyAndSingleSegment() {
+        SegmentBuffer lines = new SegmentBuffer();
+        SegmentGrid grid = new SegmentGrid();
+        grid.build(lines);
+        assertTrue(Double.isNaN(grid.castRay(lines, 0, 0, 1, Double.POSITIVE_INFINITY)));
+
+        lines.add(10, -5, 10, 5);
+        grid.invalidate();
+        assertTrue(grid.needsRebuild(lines));
+        grid.build(lines);
+        assertEquals(10, grid.castRay(lines, 0, 0, 0, Double.POSITIVE_INFINITY), 1e-12);
+        assertTrue(Double.isNaN(grid.castRay(lines, 0, 0, 0, 5)));
+        assertTrue(Double.isNaN(grid.castRay(lines, 0, 0, Math.PI, Double.POSITIVE_INFINITY)));
+    }
+
+    @Test
+    void draggedShapeKeepsAnsweringWithoutRebuilding() {
+        SegmentBuffer lines = new SegmentBuffer();
+        //a square from 100 to 200
+        lines.add(100, 100, 200, 100);
+        lines.add(200, 100, 200, 200);
+        lines.add(200, 200, 100, 200);
+        lines.add(100, 200, 100, 100);
+        TransformedShape shape = new TransformedShape(new SegmentShape(lines, 1024));
+        assertEquals(50, shape.radius(150, 150, 0), 1e-9);
+
+        //moved right by 20, the right edge is 20 further from the same point, and the left edge 20 closer
+        shape.translate(20, 0);
+        assertEquals(70, shape.radius(150, 150, 0), 1e-9);
+        assertEquals(30, shape.radius(150, 150, Math.PI), 1e-9);
+
+        //enough queries from the new spot to recast the profile there, which it then answers from
+        for (int i = 0; i < 2000; i++) {
+            assertEquals(70, shape.radius(150, 150, 0), 1e-9);
+        }
+        assertEquals(50, shape.radius(150, 150, -Math.PI/2), 1e-9);
+    }
+}
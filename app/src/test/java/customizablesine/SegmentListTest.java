@@ -0,0 +1,147 @@
+package customizablesine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SegmentListTest {
+
+    @Test
+    void copiesOutWhatWentIn() {
+        //a few chunks and a partly filled last one
+        SegmentBuffer lines = new SegmentBuffer();
+        int n = 3*SegmentList.CHUNK_SEGMENTS + 17;
+        for (int i = 0; i < n; i++) {
+            lines.add(i, -i, 0.5*i, i + 0.25);
+        }
+        SegmentList list = SegmentList.of(lines);
+        assertEquals(n, list.size());
+
+        //changing the buffer afterwards doesn't change the list
+        lines.translate(10, 10);
+        SegmentBuffer copy = new SegmentBuffer();
+        copy.add(1, 2, 3, 4);
+        list.copyTo(copy);
+        assertEquals(n + 1, copy.size());
+        assertEquals(4, copy.y2(0));
+        for (int i = 0; i < n; i++) {
+            assertEquals(i, copy.x1(i + 1));
+            assertEquals(-i, copy.y1(i + 1));
+            assertEquals(0.5*i, copy.x2(i + 1));
+            assertEquals(i + 0.25, copy.y2(i + 1));
+        }
+    }
+
+    @Test
+    void emptyDrawing() {
+        SegmentList list = SegmentList.of(new SegmentBuffer());
+        assertTrue(list.isEmpty());
+        SegmentBuffer copy = new SegmentBuffer();
+        list.copyTo(copy);
+        SegmentList.EMPTY.copyTo(copy);
+        assertEquals(0, copy.size());
+    }
+
+    @Test
+    void appendingSharesTheFullChunks() {
+        SegmentBuffer lines = new SegmentBuffer();
+        for (int i = 0; i < 2*SegmentList.CHUNK_SEGMENTS + 10; i++) {
+            lines.add(i, i, i + 1, i + 1);
+        }
+        SegmentList before = SegmentList.of(lines);
+        int kept = lines.size();
+        for (int i = 0; i < 2000; i++) {
+            lines.add(-i, -i, -i - 1, -i - 1);
+        }
+        SegmentList after = before.append(lines, kept);
+
+        assertSame(before.chunks()[0], after.chunks()[0]);
+        assertSame(before.chunks()[1], after.chunks()[1]);
+        assertNotSame(before.chunks()[2], after.chunks()[2]);
+        assertEquals(kept, before.size());
+        assertEquals(lines.size(), after.size());
+        for (int i = 0; i < lines.size(); i++) {
+            assertEquals(lines.x1(i), after.x1(i));
+            assertEquals(lines.y1(i), after.y1(i));
+            assertEquals(lines.x2(i), after.x2(i));
+            assertEquals(lines.y2(i), after.y2(i));
+        }
+        //and the old list is still as it was
+        assertEquals(kept - 1.0, before.x1(kept - 1));
+        assertSame(before, before.append(lines, lines.size()));
+    }
+
+    @Test
+    void shapesReadTheListWhereItIs() {
+        SegmentBuffer lines = new SegmentBuffer();
+        for (int i = 0; i < 3000; i++) {
+            double a = 2*Math.PI*i/3000, b = 2*Math.PI*(i + 1)/3000, r = 100 + 20*Math.sin(7*a);
+            lines.add(200 + r*Math.cos(a), 200 + r*Math.sin(a), 200 + r*Math.cos(b), 200 + r*Math.sin(b));
+        }
+        SegmentList list = SegmentList.of(lines);
+        SegmentShape fromList = new SegmentShape(list, 1024), fromBuffer = new SegmentShape(lines, 1024);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(fromBuffer.radius(210, 190, 0.07*i), fromList.radius(210, 190, 0.07*i), 1e-9);
+        }
+
+        //copies share the list, and moving one moves a copy of the segments instead
+        SegmentShape copy = (SegmentShape) fromList.copy();
+        assertSame(list, copy.getLines());
+        copy.translate(5, 0);
+        assertNotSame(list, copy.getLines());
+        assertEquals(lines.x1(0), list.x1(0));
+        assertEquals(lines.x1(0) + 5, copy.getLines().x1(0));
+    }
+
+    @Test
+    void longHistoryOfABigDrawingSharesItsSegments() {
+        SegmentBuffer lines = new SegmentBuffer();
+        for (int i = 0; i < 100000; i++) {
+            double a = 2*Math.PI*i/100000, b = 2*Math.PI*(i + 1)/100000;
+            lines.add(Math.cos(a), Math.sin(a), Math.cos(b), Math.sin(b));
+        }
+        DrawingHistory history = new DrawingHistory(500);
+        history.commit(new DrawingHistory.State(SegmentList.of(lines), 0, 0, 0));
+
+        //300 edits: every other one adds a 50 segment stroke, the rest drag the drawing
+        for (int edit = 0; edit < 300; edit++) {
+            DrawingHistory.State current = history.getCurrent();
+            if (edit % 2 == 0) {
+                int kept = lines.size();
+                for (int i = 0; i < 50; i++) {
+                    lines.add(edit, i, edit + 1, i + 1);
+                }
+                history.commit(new DrawingHistory.State(current.segments.append(lines, kept), current.angle,
+                                                        current.offsetX, current.offsetY));
+            }
+            else {
+                history.commit(new DrawingHistory.State(current.segments, current.angle + 0.1, edit, edit));
+            }
+        }
+
+        //every version is still there and right
+        assertEquals(100000 + 150*50, history.getCurrent().segments.size());
+        Map<double[], Boolean> chunks = new IdentityHashMap<double[], Boolean>();
+        long naive = 0;
+        int versions = 0;
+        for (DrawingHistory.State state = history.getCurrent(); state != null; state = history.undo()) {
+            naive += 4L*state.segments.size();
+            versions++;
+            for (double[] chunk : state.segments.chunks()) {
+                chunks.put(chunk, Boolean.TRUE);
+            }
+        }
+        assertEquals(302, versions);
+        assertEquals(0, history.getCurrent().segments.size());
+
+        long stored = 0;
+        for (double[] chunk : chunks.keySet()) {
+            stored += chunk.length;
+        }
+        //a naive copy per version would be 300 drawings' worth; this is a handful
+        assertTrue(stored < naive/50, stored + " doubles stored for " + naive + " in naive copies");
+    }
+}
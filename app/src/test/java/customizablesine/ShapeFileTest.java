@@ -0,0 +1,98 @@
+package customizablesine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShapeFileTest {
+
+    private static SegmentBuffer randomSegments(int count) {
+        Random random = new Random(1);
+        SegmentBuffer segments = new SegmentBuffer();
+        for (int i = 0; i < count; i++) {
+            segments.add(random.nextDouble()*540, random.nextDouble()*540, random.nextDouble()*540, random.nextDouble()*540);
+        }
+        return segments;
+    }
+
+    private static void assertSegments(SegmentBuffer expected, SegmentBuffer actual, double tolerance) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.x1(i), actual.x1(i), tolerance);
+            assertEquals(expected.y1(i), actual.y1(i), tolerance);
+            assertEquals(expected.x2(i), actual.x2(i), tolerance);
+            assertEquals(expected.y2(i), actual.y2(i), tolerance);
+        }
+    }
+
+    @Test
+    void doublesRoundTripExactly(@TempDir Path dir) throws IOException {
+        //more than one chunk's worth, to go through the chunked writes
+        SegmentBuffer segments = randomSegments(40000);
+        Path file = dir.resolve("d.sine");
+        ShapeFile.save(file, segments, false);
+
+        assertTrue(ShapeFile.isShapeFile(file));
+        assertEquals(ShapeFile.HEADER_BYTES + 40000*32, Files.size(file));
+        assertSegments(segments, ShapeFile.load(file), 0);
+    }
+
+    @Test
+    void floatsRoundTripClosely(@TempDir Path dir) throws IOException {
+        SegmentBuffer segments = randomSegments(40000);
+        Path file = dir.resolve("f.sine");
+        ShapeFile.save(file, segments, true);
+
+        assertEquals(ShapeFile.HEADER_BYTES + 40000*16, Files.size(file));
+        assertSegments(segments, ShapeFile.load(file), 1e-4);
+    }
+
+    @Test
+    void loadAppendsToWhatsThere(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("a.sine");
+        ShapeFile.save(file, randomSegments(3), false);
+
+        SegmentBuffer segments = new SegmentBuffer();
+        segments.add(1, 2, 3, 4);
+        ShapeFile.load(file, segments);
+        assertEquals(4, segments.size());
+        assertEquals(1, segments.x1(0));
+    }
+
+    @Test
+    void emptyDrawing(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("e.sine");
+        ShapeFile.save(file, new SegmentBuffer(), true);
+        assertEquals(0, ShapeFile.load(file).size());
+    }
+
+    @Test
+    void otherFilesAreRejected(@TempDir Path dir) throws IOException {
+        Path text = dir.resolve("t.txt");
+        Files.write(text, "0 0 1 1\n".getBytes(StandardCharsets.UTF_8));
+        assertFalse(ShapeFile.isShapeFile(text));
+        assertThrows(IOException.class, () -> ShapeFile.load(text));
+
+        Path tiny = dir.resolve("tiny");
+        Files.write(tiny, new byte[] {'S', 'I'});
+        assertFalse(ShapeFile.isShapeFile(tiny));
+        assertThrows(IOException.class, () -> ShapeFile.load(tiny));
+    }
+
+    @Test
+    void truncatedFilesAreRejected(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("cut.sine");
+        ShapeFile.save(file, randomSegments(10), true);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, java.util.Arrays.copyOf(bytes, bytes.length - 3));
+        assertTrue(ShapeFile.isShapeFile(file));
+        assertThrows(IOException.class, () -> ShapeFile.load(file));
+    }
+}
@@ -0,0 +1,140 @@
+package customizablesine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StrokeSimplifierTest {
+
+    private static double distanceToSegment(double px, double py, double x1, double y1, double x2, double y2) {
+        double dx = x2-x1, dy = y2-y1;
+        double lengthSq = dx*dx + dy*dy;
+        double t = lengthSq == 0 ? 0 : Math.max(0, Math.min(1, ((px-x1)*dx + (py-y1)*dy) / lengthSq));
+        return Math.hypot(x1 + t*dx - px, y1 + t*dy - py);
+    }
+
+    private static double distanceToStroke(SegmentBuffer lines, double x, double y) {
+        double nearest = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < lines.size(); i++) {
+            nearest = Math.min(nearest, distanceToSegment(x, y, lines.x1(i), lines.y1(i), lines.x2(i), lines.y2(i)));
+        }
+        return nearest;
+    }
+
+    @Test
+    void collinearPointsBecomeOneSegment() {
+        SegmentBuffer lines = new SegmentBuffer();
+        StrokeSimplifier stroke = new StrokeSimplifier(lines, 1);
+        stroke.begin(10, 20);
+        for (int i = 1; i <= 500; i++) {
+            assertTrue(stroke.add(10 + i, 20 + 0.5*i));
+        }
+        //stretched as it went, not just at the end (a stretched segment is checked in after 256 points)
+        assertEquals(2, lines.size());
+        stroke.finish();
+        assertEquals(1, lines.size());
+        assertEquals(510, lines.x2(0), 1e-12);
+        assertEquals(270, lines.y2(0), 1e-12);
+    }
+
+    @Test
+    void pointsTooCloseChangeNothing() {
+        SegmentBuffer lines = new SegmentBuffer();
+        StrokeSimplifier stroke = new StrokeSimplifier(lines, 2);
+        stroke.begin(0, 0);
+        assertFalse(stroke.add(0.5, 0.5));
+        assertFalse(stroke.add(0, 0));
+        assertEquals(0, lines.size());
+        assertTrue(stroke.add(3, 0));
+        assertEquals(1, lines.size());
+    }
+
+    @Test
+    void cornersAtTheToleranceBoundary() {
+        //half the tolerance either way goes to stretching while drawing, the other half to the final pass
+        double tolerance = 2;
+        for (double bump : new double[] {0.99, 1.01}) {
+            SegmentBuffer lines = new SegmentBuffer();
+            StrokeSimplifier stroke = new StrokeSimplifier(lines, tolerance);
+            stroke.begin(0, 0);
+            stroke.add(50, bump);
+            stroke.add(100, 0);
+            stroke.finish();
+            assertEquals(bump < tolerance/2 ? 1 : 2, lines.size(), "bump of " + bump);
+        }
+    }
+
+    @Test
+    void keepsTheFirstAndLastPoints() {
+        SegmentBuffer lines = new SegmentBuffer();
+        StrokeSimplifier stroke = new StrokeSimplifier(lines, 4);
+        stroke.begin(3, 7);
+        for (int i = 1; i <= 200; i++) {
+            stroke.add(3 + i, 7 + 30*Math.sin(i/20.0));
+        }
+        stroke.add(250, 250);
+        stroke.finish();
+
+        assertEquals(3, lines.x1(0));
+        assertEquals(7, lines.y1(0));
+        assertEquals(250, lines.x2(lines.size() - 1));
+        assertEquals(250, lines.y2(lines.size() - 1));
+        //and it's still one connected line
+        for (int i = 1; i < lines.size(); i++) {
+            assertEquals(lines.x2(i - 1), lines.x1(i));
+            assertEquals(lines.y2(i - 1), lines.y1(i));
+        }
+    }
+
+    @Test
+    void staysWithinToleranceOfTheRawStroke() {
+        Random random = new Random(11);
+        for (double tolerance : new double[] {0.5, 1, 3}) {
+            int n = 5000;
+            double[] xs = new double[n], ys = new double[n];
+            double x = 200, y = 200, heading = 0;
+            for (int i = 0; i < n; i++) {
+                //mostly smooth with the odd sharp turn and jitter, like a hand on a mouse
+                heading += random.nextDouble() < 0.01 ? random.nextGaussian()*2 : random.nextGaussian()*0.05;
+                x += Math.cos(heading) + random.nextGaussian()*0.2;
+                y += Math.sin(heading) + random.nextGaussian()*0.2;
+                xs[i] = x;
+                ys[i] = y;
+            }
+
+            SegmentBuffer lines = new SegmentBuffer();
+            StrokeSimplifier stroke = new StrokeSimplifier(lines, tolerance);
+            stroke.begin(xs[0], ys[0]);
+            for (int i = 1; i < n; i++) {
+                stroke.add(xs[i], ys[i]);
+            }
+            stroke.finish();
+
+            assertTrue(lines.size() < n/4, lines.size() + " segments at tolerance " + tolerance);
+            for (int i = 0; i < n; i++) {
+                assertTrue(distanceToStroke(lines, xs[i], ys[i]) <= tolerance + 1e-9, "point " + i + " at tolerance " + tolerance);
+            }
+        }
+    }
+
+    @Test
+    void leavesWhatWasThereBeforeTheStroke() {
+        SegmentBuffer lines = new SegmentBuffer();
+        lines.add(1, 2, 3, 4);
+        lines.add(5, 6, 7, 8);
+        StrokeSimplifier stroke = new StrokeSimplifier(lines, 1);
+        stroke.begin(100, 100);
+        for (int i = 1; i <= 50; i++) {
+            stroke.add(100 + i, 100 + (i % 2)*0.1);
+        }
+        stroke.finish();
+
+        assertEquals(3, lines.size());
+        assertEquals(1, lines.x1(0));
+        assertEquals(8, lines.y2(1));
+        assertEquals(100, lines.x1(2));
+        assertEquals(150, lines.x2(2));
+    }
+}
@@ -0,0 +1,239 @@
+package customizablesine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
+import java.awt.geom.Point2D;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SvgImportTest {
+
+    //every point the flattened path goes through, closes included as a repeat of the subpath's start
+    private static List<double[]> points(Path2D path) {
+        List<double[]> points = new ArrayList<double[]>();
+        double[] point = new double[6];
+        double startX = 0, startY = 0;
+        for (PathIterator it = path.getPathIterator(null, 0.001); !it.isDone(); it.next()) {
+            int type = it.currentSegment(point);
+            if (type == PathIterator.SEG_MOVETO) {
+                startX = point[0];
+                startY = point[1];
+            }
+            if (type == PathIterator.SEG_CLOSE) points.add(new double[] {startX, startY});
+            else points.add(new double[] {point[0], point[1]});
+        }
+        return points;
+    }
+
+    private static Path2D.Double parse(String d) {
+        return new SvgImport.PathParser(d).parse();
+    }
+
+    private static void assertPoint(double x, double y, Point2D point) {
+        assertEquals(x, point.getX(), 1e-9);
+        assertEquals(y, point.getY(), 1e-9);
+    }
+
+    @Test
+    void absoluteAndRelativeCommands() {
+        Path2D.Double path = parse("M10 10 h5 v5 H0 V0 l3 4 L1,1");
+        assertPoint(1, 1, path.getCurrentPoint());
+
+        path = parse("m10,10 l5,0 m1 1 l0 5 z");
+        assertPoint(16, 11, path.getCurrentPoint());
+    }
+
+    @Test
+    void numbersAfterMoveAreLines() {
+        List<double[]> points = points(parse("M0 0 10 0 10 10"));
+        assertEquals(3, points.size());
+        assertArrayEquals(new double[] {10, 10}, points.get(2));
+    }
+
+    @Test
+    void numbersWithoutSeparators() {
+        SvgImport.PathParser parser = new SvgImport.PathParser("10-20.5.5e1-1E-1e");
+        assertEquals(10, parser.number());
+        assertEquals(-20.5, parser.number());
+        assertEquals(5, parser.number());
+        assertEquals(-0.1, parser.number(), 1e-15);
+        assertFalse(parser.hasNumber());
+    }
+
+    @Test
+    void arcFlagsCanRunIntoTheNextNumber() {
+        assertPoint(10, 0, parse("M0 0a5 5 0 1010 0").getCurrentPoint());
+    }
+
+    @Test
+    void smoothCurvesReflectTheLastControlPoint() {
+        Path2D.Double path = parse("M0 0 C0 10 10 10 10 0 S20 -10 20 0");
+        double[] coords = new double[6];
+        PathIterator it = path.getPathIterator(null);
+        it.next();
+        it.next();
+        assertEquals(PathIterator.SEG_CUBICTO, it.currentSegment(coords));
+        assertArrayEquals(new double[] {10, -10, 20, -10, 20, 0}, coords, 1e-12);
+
+        path = parse("M0 0 Q5 5 10 0 T20 0");
+        it = path.getPathIterator(null);
+        it.next();
+        it.next();
+        assertEquals(PathIterator.SEG_QUADTO, it.currentSegment(coords));
+        assertArrayEquals(new double[] {15, -5, 20, 0}, new double[] {coords[0], coords[1], coords[2], coords[3]}, 1e-12);
+    }
+
+    @Test
+    void numbersAfterCloseAreRejected() {
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            assertThrows(IllegalArgumentException.class, () -> parse("M0 0 L10 0 L10 10 Z 5 5"));
+            assertThrows(IllegalArgumentException.class, () -> parse("M0 0 L10 0 z5 5"));
+        });
+    }
+
+    @Test
+    void badDataIsRejected() {
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            assertThrows(IllegalArgumentException.class, () -> parse("10 10"));
+            assertThrows(IllegalArgumentException.class, () -> parse("M0 0 L10"));
+            assertThrows(IllegalArgumentException.class, () -> parse("M0 0 L10 0 #"));
+            assertThrows(IllegalArgumentException.class, () -> parse("M0 0 X10 0"));
+            assertThrows(IllegalArgumentException.class, () -> parse("M0 0 A5 5 0 2 0 10 0"));
+        });
+    }
+
+    @Test
+    void closeAfterCloseIsFine() {
+        assertPoint(0, 0, parse("M0 0 L10 0 L10 10 Z Z M0 0 z").getCurrentPoint());
+    }
+
+    @Test
+    void transformsApplyRightToLeft() {
+        AffineTransform transform = SvgImport.parseTransform("translate(10 20) rotate(90)");
+        assertPoint(10, 21, transform.transform(new Point2D.Double(1, 0), null));
+
+        transform = SvgImport.parseTransform("scale(2), translate(1,1)");
+        assertPoint(4, 4, transform.transform(new Point2D.Double(1, 1), null));
+    }
+
+    @Test
+    void everyTransformFunction() {
+        assertPoint(7, 11, SvgImport.parseTransform("matrix(1 0 0 1 5 6)").transform(new Point2D.Double(2, 5), null));
+        assertPoint(5, 0, SvgImport.parseTransform("translate(5)").transform(new Point2D.Double(0, 0), null));
+        assertPoint(2, 3, SvgImport.parseTransform("scale(2 3)").transform(new Point2D.Double(1, 1), null));
+        assertPoint(10, 5, SvgImport.parseTransform("rotate(90 5 5)").transform(new Point2D.Double(5, 0), null));
+        assertPoint(1, 1, SvgImport.parseTransform("skewX(45)").transform(new Point2D.Double(0, 1), null));
+        assertPoint(1, 1, SvgImport.parseTransform("skewY(45)").transform(new Point2D.Double(1, 0), null));
+        assertTrue(SvgImport.parseTransform("").isIdentity());
+    }
+
+    @Test
+    void badTransformsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> SvgImport.parseTransform("wobble(3)"));
+        assertThrows(IllegalArgumentException.class, () -> SvgImport.parseTransform("translate(3"));
+    }
+
+    @Test
+    void arcFollowsTheEllipse() {
+        Path2D.Double path = new Path2D.Double();
+        path.moveTo(0, 0);
+        SvgImport.PathParser.arcTo(path, 0, 0, 5, 5, 0, false, true, 10, 0);
+        assertPoint(10, 0, path.getCurrentPoint());
+        for (double[] point : points(path)) {
+            assertEquals(5, Math.hypot(point[0] - 5, point[1]), 0.01);
+            //sweeping in the positive angle direction goes up the screen from (0, 0) to (10, 0)
+            assertTrue(point[1] <= 1e-9);
+        }
+
+        path = new Path2D.Double();
+        path.moveTo(0, 0);
+        SvgImport.PathParser.arcTo(path, 0, 0, 5, 5, 0, false, false, 10, 0);
+        for (double[] point : points(path)) {
+            assertTrue(point[1] >= -1e-9);
+        }
+    }
+
+    @Test
+    void largeArcAndRotatedEllipse() {
+        //a quarter of the circle around (0, 10) is the small arc, the other three quarters the large one
+        Path2D.Double path = new Path2D.Double();
+        path.moveTo(0, 0);
+        SvgImport.PathParser.arcTo(path, 0, 0, 10, 10, 0, true, false, 10, 10);
+        double minX = 0;
+        for (double[] point : points(path)) {
+            assertEquals(10, Math.hypot(point[0], point[1] - 10), 0.02);
+            minX = Math.min(minX, point[0]);
+        }
+        assertEquals(-10, minX, 0.02);
+
+        //an ellipse turned a quarter turn is as tall as it was wide
+        path = new Path2D.Double();
+        path.moveTo(0, 0);
+        SvgImport.PathParser.arcTo(path, 0, 0, 10, 5, Math.PI/2, false, true, 0, 20);
+        assertEquals(5, path.getBounds2D().getWidth(), 0.02);
+        assertPoint(0, 20, path.getCurrentPoint());
+    }
+
+    @Test
+    void arcsThatCantReachAreScaledUp() {
+        Path2D.Double path = new Path2D.Double();
+        path.moveTo(0, 0);
+        SvgImport.PathParser.arcTo(path, 0, 0, 1, 1, 0, false, true, 10, 0);
+        for (double[] point : points(path)) {
+            assertEquals(5, Math.hypot(point[0] - 5, point[1]), 0.01);
+        }
+    }
+
+    @Test
+    void degenerateArcs() {
+        Path2D.Double path = new Path2D.Double();
+        path.moveTo(0, 0);
+        SvgImport.PathParser.arcTo(path, 0, 0, 0, 5, 0, false, true, 10, 0);
+        assertEquals(2, points(path).size());
+        assertPoint(10, 0, path.getCurrentPoint());
+
+        path = new Path2D.Double();
+        path.moveTo(0, 0);
+        SvgImport.PathParser.arcTo(path, 0, 0, 5, 5, 0, false, true, 0, 0);
+        assertEquals(1, points(path).size());
+    }
+
+    @Test
+    void readFitsTheOutlineToTheRegion(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("square.svg");
+        Files.write(file, ("<?xml version=\"1.0\"?>\n" +
+            "<!DOCTYPE svg PUBLIC \"-//W3C//DTD SVG 1.1//EN\" \"http://www.w3.org/Graphics/SVG/1.1/DTD/svg11.dtd\">\n" +
+            "<svg xmlns=\"http://www.w3.org/2000/svg\">\n" +
+            "  <defs><path d=\"M0 0 L1000 1000\"/></defs>\n" +
+            "  <g transform=\"translate(100 100)\"><rect x=\"0\" y=\"0\" width=\"10\" height=\"10\"/></g>\n" +
+            "</svg>\n").getBytes(StandardCharsets.UTF_8));
+
+        SegmentBuffer segments = SvgImport.read(file, 0.25, 100);
+        assertEquals(4, segments.size());
+        for (int i = 0; i < segments.size(); i++) {
+            for (double coordinate : new double[] {segments.x1(i), segments.y1(i), segments.x2(i), segments.y2(i)}) {
+                assertTrue(Math.abs(coordinate - 10) < 1e-9 || Math.abs(coordinate - 90) < 1e-9, "got " + coordinate);
+            }
+        }
+
+        segments = SvgImport.read(file, 0.25, 0);
+        assertEquals(100, segments.x1(0), 1e-9);
+    }
+
+    @Test
+    void readReportsBadPathData(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("bad.svg");
+        Files.write(file, "<svg><path d=\"M0 0 L10 0 Z 5 5\"/></svg>".getBytes(StandardCharsets.UTF_8));
+        assertThrows(java.io.IOException.class, () -> SvgImport.read(file, 0.25, 100));
+    }
+}
@@ -0,0 +1,101 @@
+package customizablesine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WaveSamplerTest {
+    private static final double CENTER = 200, RATE = 60;
+
+    private static WaveEngine engine(RadialShape shape) {
+        WaveEngine engine = new WaveEngine(shape, CENTER);
+        engine.setMissValue(Double.NaN);
+        engine.setFrequency(1.3);
+        return engine;
+    }
+
+    //the wave at every 1/subsamples of a step from the start, worked out on an engine of its own
+    private static double[] reference(RadialShape shape, int steps, int subsamples) {
+        double[] out = new double[steps*subsamples];
+        engine(shape).fill(out, 0, out.length, RATE*subsamples);
+        for (int i = 0; i < out.length; i++) {
+            out[i] = WaveSampler.traceY(out[i], CENTER);
+        }
+        return out;
+    }
+
+    @Test
+    void traceCoordinates() {
+        assertEquals(CENTER, WaveSampler.traceY(0, CENTER));
+        assertEquals(0, WaveSampler.traceY(1, CENTER));
+        assertEquals(2*CENTER, WaveSampler.traceY(-1, CENTER));
+        assertEquals(-1, WaveSampler.traceY(Double.NaN, CENTER));
+    }
+
+    @Test
+    void evenSubsamplesInOrder() {
+        RadialShape shape = ShapePresets.square(400);
+        WaveTrace trace = new WaveTrace();
+        trace.setCapacity(1000);
+        WaveSampler sampler = new WaveSampler(engine(shape), trace, 4, false, 0.5);
+
+        assertEquals(3, sampler.sample(3, RATE, CENTER));
+        assertEquals(7, sampler.sample(7, RATE, CENTER));
+        double[] expected = reference(shape, 10, 4);
+
+        assertEquals(40, trace.size());
+        for (int i = 0; i < 40; i++) {
+            int age = 39 - i;
+            assertEquals((i + 1)/4.0, trace.getTime(age), 1e-12);
+            assertEquals(expected[i], trace.get(age), 1e-9, "sample " + i);
+        }
+    }
+
+    @Test
+    void adaptiveSubsamplesOnlyWhereTheWaveBends() {
+        //a square's corners put kinks in the wave; subsamples are at most every eighth of a step
+        RadialShape shape = ShapePresets.square(400);
+        int steps = 120, subsamples = 8;
+        double tolerance = 0.5;
+        WaveTrace trace = new WaveTrace();
+        trace.setCapacity(steps*subsamples);
+        WaveSampler sampler = new WaveSampler(engine(shape), trace, subsamples, true, tolerance);
+        for (int done = 0; done < steps; done += 10) {
+            assertEquals(10, sampler.sample(10, RATE, CENTER));
+        }
+        double[] expected = reference(shape, steps, subsamples);
+
+        int extra = 0;
+        for (int age = trace.size() - 1; age >= 0; age--) {
+            double time = trace.getTime(age);
+            int index = (int) Math.round(time*subsamples) - 1;
+            assertEquals(index + 1, time*subsamples, 1e-9, "on an eighth of a step");
+            assertEquals(expected[index], trace.get(age), 1e-9, "at " + time);
+            if (time != Math.rint(time)) extra++;
+            //in order
+            if (age > 0) assertTrue(trace.getTime(age - 1) > time);
+        }
+        //every step is there, with something in between for some but not all of them
+        assertEquals(steps, trace.size() - extra);
+        assertTrue(extra > 0 && extra < steps*(subsamples - 1), extra + " extra samples");
+
+        //wherever it stopped splitting, a straight line between neighbours is close enough to the wave
+        for (int age = trace.size() - 1; age > 0; age--) {
+            int from = (int) Math.round(trace.getTime(age)*subsamples), to = (int) Math.round(trace.getTime(age - 1)*subsamples);
+            if (to - from < 2 || from == 0) continue;
+            int middle = (from + to)/2;
+            double line = (trace.get(age) + trace.get(age - 1))/2;
+            assertEquals(line, expected[middle - 1], tolerance + 1e-9, "between " + from + " and " + to);
+        }
+    }
+
+    @Test
+    void adaptiveOnASmoothWaveIsOnePerStep() {
+        WaveTrace trace = new WaveTrace();
+        trace.setCapacity(500);
+        WaveSampler sampler = new WaveSampler(engine(ShapePresets.circle(400)), trace, 8, true, 5);
+        sampler.sample(60, RATE, CENTER);
+        assertEquals(60, trace.size());
+        assertEquals(60, trace.getTime(0));
+    }
+}
@@ -0,0 +1,111 @@
+package customizablesine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WaveTraceTest {
+
+    private static WaveTrace filled(int capacity, int pushes) {
+        WaveTrace trace = new WaveTrace();
+        trace.setCapacity(capacity);
+        for (int i = 1; i <= pushes; i++) {
+            trace.push(i, 10*i);
+        }
+        return trace;
+    }
+
+    @Test
+    void pushingPastCapacityDropsTheOldest() {
+        WaveTrace trace = filled(4, 11);
+        assertEquals(4, trace.size());
+        assertEquals(11, trace.getPushCount());
+        for (int age = 0; age < 4; age++) {
+            assertEquals(10*(11 - age), trace.get(age));
+            assertEquals(11 - age, trace.getTime(age));
+        }
+        //and around the ring a few more times
+        for (int i = 12; i <= 30; i++) {
+            trace.push(i, 10*i);
+            assertEquals(10*i, trace.get(0));
+            assertEquals(10*(i - 3), trace.get(3));
+        }
+    }
+
+    @Test
+    void shrinkingKeepsTheNewest() {
+        //wrapped around, so the newest aren't at the start of the array
+        WaveTrace trace = filled(8, 13);
+        trace.setCapacity(3);
+        assertEquals(3, trace.capacity());
+        assertEquals(3, trace.size());
+        assertEquals(130, trace.get(0));
+        assertEquals(120, trace.get(1));
+        assertEquals(110, trace.get(2));
+        assertEquals(11, trace.getTime(2));
+
+        trace.push(14, 140);
+        assertEquals(140, trace.get(0));
+        assertEquals(120, trace.get(2));
+    }
+
+    @Test
+    void growingKeepsEverything() {
+        WaveTrace trace = filled(4, 9);
+        trace.setCapacity(10);
+        assertEquals(4, trace.size());
+        for (int age = 0; age < 4; age++) {
+            assertEquals(10*(9 - age), trace.get(age));
+        }
+
+        //room for the new ones without losing the old
+        for (int i = 10; i <= 15; i++) {
+            trace.push(i, 10*i);
+        }
+        assertEquals(10, trace.size());
+        for (int age = 0; age < 10; age++) {
+            assertEquals(10*(15 - age), trace.get(age));
+            assertEquals(15 - age, trace.getTime(age));
+        }
+        trace.push(16, 160);
+        assertEquals(10, trace.size());
+        assertEquals(70, trace.get(9));
+    }
+
+    @Test
+    void sameCapacityChangesNothing() {
+        WaveTrace trace = filled(5, 7);
+        trace.setCapacity(5);
+        assertEquals(5, trace.size());
+        assertEquals(70, trace.get(0));
+        assertEquals(30, trace.get(4));
+    }
+
+    @Test
+    void timesAndOffsets() {
+        WaveTrace trace = new WaveTrace();
+        trace.push(1);
+        assertEquals(0, trace.size());
+
+        trace.setCapacity(8);
+        trace.push(5);
+        trace.push(6);
+        assertEquals(0, trace.getTime(1));
+        assertEquals(1, trace.getTime(0));
+        trace.push(1.25, 7);
+        trace.push(1.5, 8);
+        trace.push(9);
+        assertEquals(2.5, trace.getTime(0));
+        //two pixels a step, rounded
+        assertEquals(0, trace.offset(0, 2));
+        assertEquals(2, trace.offset(1, 2));
+        assertEquals(3, trace.offset(3, 2));
+        assertEquals(5, trace.offset(4, 2));
+
+        trace.clear();
+        assertEquals(0, trace.size());
+        assertEquals(1, trace.getClearCount());
+        trace.push(10);
+        assertEquals(0, trace.getTime(0));
+    }
+}
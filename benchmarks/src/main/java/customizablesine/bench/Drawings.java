@@ -0,0 +1,33 @@
+package customizablesine.bench;
+
+import customizablesine.SegmentBuffer;
+
+/**
+ *  Made-up free drawings for the benchmarks.
+ */
+final class Drawings {
+    static final int SIZE = 512;
+
+    private Drawings() {
+    }
+
+    /**
+     *  A closed, wobbly loop around the center of a SIZE x SIZE drawing region, made of the given number of
+     *  segments, roughly what a careful hand drawing looks like.
+     */
+    static SegmentBuffer wobblyLoop(int segments) {
+        SegmentBuffer lines = new SegmentBuffer(segments);
+        double center = SIZE/2;
+        double lastX = 0, lastY = 0;
+        for (int i = 0; i <= segments; i++) {
+            double angle = 2*Math.PI*i/segments;
+            double radius = SIZE/4*(1 + 0.2*Math.sin(5*angle) + 0.05*Math.sin(37*angle));
+            double x = center + radius*Math.cos(angle);
+            double y = center + radius*Math.sin(angle);
+            if (i > 0) lines.add(lastX, lastY, x, y);
+            lastX = x;
+            lastY = y;
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,69 @@
+package customizablesine.bench;
+
+import customizablesine.FrameRenderer;
+import customizablesine.SegmentShape;
+import customizablesine.WaveTrace;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *  Rendering whole frames into an offscreen image the size of the default window: a normal frame where only the
+ *  wave moved, and one right after the shape was edited so the cached shape layer has to be redrawn.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class FrameBenchmark {
+    private static final int WIDTH = 1516, HEIGHT = 540;
+
+    @Param({"360", "100000"})
+    public int segments;
+
+    private final FrameRenderer renderer = new FrameRenderer();
+    private final WaveTrace trace = new WaveTrace();
+    private SegmentShape shape;
+    private BufferedImage image;
+    private Graphics2D g;
+    private double angle;
+
+    @Setup
+    public void setUp() {
+        shape = new SegmentShape(Drawings.wobblyLoop(segments), 8192);
+        trace.setCapacity((WIDTH - HEIGHT) / 2 + 2);
+        image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        g = image.createGraphics();
+    }
+
+    @TearDown
+    public void tearDown() {
+        g.dispose();
+    }
+
+    private void frame() {
+        double center = HEIGHT/2;
+        angle += 0.1;
+        double radius = shape.radius(center, center, -angle);
+        double x = center + radius*Math.cos(-angle), y = center + radius*Math.sin(-angle);
+        trace.push(y);
+        renderer.render(g, WIDTH, HEIGHT, shape, 0, trace, 2, x, y);
+    }
+
+    @Benchmark
+    public BufferedImage steadyFrame() {
+        frame();
+        return image;
+    }
+
+    @Benchmark
+    public BufferedImage frameAfterEdit() {
+        renderer.invalidate();
+        frame();
+        return image;
+    }
+}
@@ -0,0 +1,91 @@
+package customizablesine.bench;
+
+import customizablesine.SegmentBuffer;
+import customizablesine.SegmentGrid;
+import customizablesine.SegmentShape;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ *  Finding where the ray hits a free drawing: the per-frame lookup, the exact search through the grid, the old
+ *  test-every-segment scan for comparison, rebuilding everything after an edit, and a query
+ *  after the drawing has been dragged.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IntersectionBenchmark {
+
+    @Param({"4", "360", "10000", "100000"})
+    public int segments;
+
+    private SegmentBuffer lines;
+    private SegmentShape shape;
+    private SegmentGrid grid;
+    private double drag;
+    private double center, maxRadius, angle;
+
+    @Setup
+    public void setUp() {
+        lines = Drawings.wobblyLoop(segments);
+        center = Drawings.SIZE/2;
+        maxRadius = center*Math.sqrt(2);
+
+        shape = new SegmentShape(lines, 8192);
+        shape.radius(center, center, 0);
+
+        grid = new SegmentGrid();
+        grid.build(lines);
+    }
+
+    private double nextAngle() {
+        angle += 0.0137;
+        if (angle >= 2*Math.PI) angle -= 2*Math.PI;
+        return angle;
+    }
+
+    @Benchmark
+    public double profileLookup() {
+        return shape.radius(center, center, nextAngle());
+    }
+
+    @Benchmark
+    public double gridRayCast() {
+        return grid.castRay(lines, center, center, nextAngle(), maxRadius);
+    }
+
+    @Benchmark
+    public double queryAfterDrag() {
+        //a new origin every time, like the first step after each drag event
+        drag = drag >= 20 ? 0 : drag + 0.37;
+        return shape.radius(center + drag, center - drag, nextAngle());
+    }
+
+    @Benchmark
+    public double linearScan() {
+        double a = nextAngle();
+        double dx = Math.cos(a), dy = Math.sin(a);
+        double nearest = Double.NaN;
+        for (int i = 0; i < lines.size(); i++) {
+            double ex = lines.x2(i) - lines.x1(i), ey = lines.y2(i) - lines.y1(i);
+            double denom = dx*ey - dy*ex;
+            if (denom == 0) continue;
+            double wx = lines.x1(i) - center, wy = lines.y1(i) - center;
+            double t = (wx*ey - wy*ex) / denom;
+            double u = (wx*dy - wy*dx) / denom;
+            if (t >= 0 && t <= maxRadius && u >= 0 && u <= 1 && !(t >= nearest)) nearest = t;
+        }
+        return nearest;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public double rebuildAfterEdit() {
+        shape.invalidate();
+        return shape.radius(center, center, nextAngle());
+    }
+}
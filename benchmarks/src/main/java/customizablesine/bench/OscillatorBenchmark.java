@@ -0,0 +1,62 @@
+package customizablesine.bench;
+
+import customizablesine.Oscillator;
+import customizablesine.OscillatorBank;
+import customizablesine.RadialShape;
+import customizablesine.ShapePresets;
+import customizablesine.TransformedShape;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *  Summing a stack of polygon oscillators into one block of samples, on the common pool and on a single worker.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OscillatorBenchmark {
+
+    @Param({"1", "16", "256"})
+    public int oscillators;
+
+    @Param({"1", "512"})
+    public int block;
+
+    @Param({"true", "false"})
+    public boolean parallel;
+
+    private final int size = 540;
+    private final double center = size/2;
+    private OscillatorBank bank;
+    private ForkJoinPool pool;
+    private double[] out;
+
+    @Setup
+    public void setUp() {
+        pool = parallel ? ForkJoinPool.commonPool() : new ForkJoinPool(1);
+        bank = new OscillatorBank(pool);
+        for (int i = 0; i < oscillators; i++) {
+            //every harmonic off center a little, so they go through the general polygon path
+            RadialShape shape = new TransformedShape(ShapePresets.polygon(size, 3 + i%12));
+            shape.translate(i%7, i%5);
+            bank.add(new Oscillator(shape, 0, i + 1, 1.0/(i + 1)));
+        }
+        out = new double[block];
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (!parallel) pool.shutdown();
+    }
+
+    @Benchmark
+    public double[] advance() {
+        bank.advance(center, 0.016, out, 0, block);
+        return out;
+    }
+}
@@ -0,0 +1,87 @@
+package customizablesine.bench;
+
+import customizablesine.SegmentBuffer;
+import customizablesine.SegmentShape;
+import customizablesine.TransformedShape;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ *  Rotating a free drawing. Moving the rotation slider is only a phase offset into the radial profile, and releasing
+ *  a drag folds the rotation into the shape's transform. Turning the segments themselves only happens on a bake.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RotationBenchmark {
+
+    @Param({"4", "360", "10000", "100000"})
+    public int segments;
+
+    private SegmentBuffer lines;
+    private SegmentShape shape;
+    private TransformedShape placed;
+    private double center, rotation;
+
+    @Setup
+    public void setUp() {
+        lines = Drawings.wobblyLoop(segments);
+        shape = new SegmentShape(lines, 8192);
+        center = Drawings.SIZE/2;
+        shape.radius(center, center, 0);
+        placed = new TransformedShape(shape);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public double sliderRotation() {
+        rotation += 0.01;
+        return shape.radius(center, center, 1.0 - rotation);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public TransformedShape foldRotation() {
+        placed.rotate(0.01, center, center);
+        placed.translate(0.5, -0.5);
+        return placed;
+    }
+
+    /**
+     *  A drawing of its own for bakeRotation to turn, put back the way it was before every call, so the segments
+     *  don't drift further out with each one and the shared drawing the other benchmarks use stays put. Resetting
+     *  per invocation costs a timestamp around every call, which is why it's kept out of the main state; it's noise
+     *  next to the small drawings but doesn't matter for the big ones.
+     */
+    @State(Scope.Thread)
+    public static class Bake {
+        SegmentBuffer lines;
+        SegmentShape shape;
+        private SegmentBuffer original;
+
+        @Setup
+        public void setUp(RotationBenchmark benchmark) {
+            original = benchmark.lines;
+            lines = original.copy();
+            shape = new SegmentShape(lines, 8192);
+        }
+
+        @Setup(Level.Invocation)
+        public void reset() {
+            lines.clear();
+            lines.addAll(original);
+            shape.invalidate();
+        }
+    }
+
+    @Benchmark
+    public SegmentShape bakeRotation(Bake bake) {
+        //turns the segments and invalidates the shape, like releasing a drag with the rotation baked in
+        bake.shape.rotate(0.01, center, center);
+        return bake.shape;
+    }
+}
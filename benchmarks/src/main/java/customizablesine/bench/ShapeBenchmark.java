@@ -0,0 +1,48 @@
+package customizablesine.bench;
+
+import customizablesine.RadialShape;
+import customizablesine.ShapePresets;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ *  Building the toolbar shapes, and looking up the ray's hit on them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShapeBenchmark {
+
+    @Param({"3", "7", "15"})
+    public int sides;
+
+    private RadialShape polygon, triangle;
+    private double angle;
+
+    @Setup
+    public void setUp() {
+        polygon = ShapePresets.polygon(Drawings.SIZE, sides);
+        triangle = ShapePresets.triangle(Drawings.SIZE);
+    }
+
+    @Benchmark
+    public RadialShape buildPolygon() {
+        return ShapePresets.polygon(Drawings.SIZE, sides);
+    }
+
+    @Benchmark
+    public double polygonLookup() {
+        angle += 0.0137;
+        return polygon.radius(Drawings.SIZE/2, Drawings.SIZE/2, angle);
+    }
+
+    @Benchmark
+    public double triangleLookup() {
+        angle += 0.0137;
+        return triangle.radius(Drawings.SIZE/2, Drawings.SIZE/2, angle);
+    }
+}
@@ -0,0 +1,46 @@
+package customizablesine.bench;
+
+import customizablesine.FFT;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *  The FFT behind the spectrum panel, at the default size and a few bigger ones.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpectrumBenchmark {
+
+    @Param({"4096", "65536", "1048576"})
+    public int size;
+
+    private FFT fft;
+    private double[] signal, re, im;
+
+    @Setup
+    public void setUp() {
+        fft = new FFT(size);
+        signal = new double[size];
+        re = new double[size];
+        im = new double[size];
+        Random random = new Random(1);
+        for (int i = 0; i < size; i++) {
+            signal[i] = random.nextDouble()*2 - 1;
+        }
+    }
+
+    @Benchmark
+    public double[] transform() {
+        System.arraycopy(signal, 0, re, 0, size);
+        Arrays.fill(im, 0);
+        fft.transform(re, im);
+        return re;
+    }
+}
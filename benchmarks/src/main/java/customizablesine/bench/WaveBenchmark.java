@@ -0,0 +1,45 @@
+package customizablesine.bench;
+
+import customizablesine.ShapePresets;
+import customizablesine.WaveEngine;
+import customizablesine.WaveTrace;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ *  Scrolling the wave trace by one sample, at the width of the default window, and pulling a block of audio-rate
+ *  samples out of the engine.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WaveBenchmark {
+
+    private final WaveTrace trace = new WaveTrace();
+    private final WaveEngine engine = new WaveEngine(ShapePresets.polygon(540, 7), 270);
+    private final double[] block = new double[512];
+    private double y;
+
+    @Setup
+    public void setUp() {
+        trace.setCapacity((1516 - 540) / 2 + 2);
+    }
+
+    @Benchmark
+    public WaveTrace scrollAndAppend() {
+        y = y > 500 ? 0 : y + 1.5;
+        trace.push(y);
+        return trace;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public double[] engineFill() {
+        engine.fill(block, 0, block.length, 44100);
+        return block;
+    }
+}